@@ -0,0 +1,119 @@
+package com.example.inventory.config;
+
+import com.example.inventory.Stubs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-call cost of the instrumentation on the request path, measured on the registry that runs
+// in production (Prometheus, histogram buckets on), next to the filter that counts SQL statements.
+// The connection benchmarks run one borrow (getConnection, getAutoCommit, prepareStatement,
+// close) on a stub pool, raw and through StatementCountingDataSource; the difference is what the
+// counting proxy adds to every connection on every thread.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+    private PrometheusMeterRegistry registry;
+    private Timer timer;
+    private Counter counter;
+    private DistributionSummary bytes;
+    private DataSource rawDataSource;
+    private DataSource countingDataSource;
+
+    @Setup
+    public void setup() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        timer = Timer.builder("inventory.bench.timer").publishPercentileHistogram().register(registry);
+        counter = Counter.builder("inventory.bench.counter").register(registry);
+        bytes = DistributionSummary.builder("inventory.bench.bytes").publishPercentileHistogram()
+                .maximumExpectedValue(10_485_760d).register(registry);
+
+        PreparedStatement statement = Stubs.of(PreparedStatement.class, Map.of("close", args -> null));
+        Connection connection = Stubs.of(Connection.class, Map.of(
+                "getAutoCommit", args -> true,
+                "prepareStatement", args -> statement,
+                "close", args -> null));
+        rawDataSource = Stubs.of(DataSource.class, Map.of("getConnection", args -> connection));
+        countingDataSource = new StatementCountingDataSource(rawDataSource);
+    }
+
+    @Benchmark
+    public void timerRecord() {
+        long start = System.nanoTime();
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public void summaryRecord() {
+        bytes.record(65_536);
+    }
+
+    // What SqlStatementMetricsFilter does per request besides the ThreadLocal start/stop
+    @Benchmark
+    public void taggedSummaryLookupAndRecord() {
+        DistributionSummary.builder("inventory.http.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/products/{id}")
+                .register(registry)
+                .record(3);
+    }
+
+    @Benchmark
+    public int statementCountStartStop() {
+        StatementCountingDataSource.start();
+        return StatementCountingDataSource.stop();
+    }
+
+    @Benchmark
+    public boolean rawConnection() throws SQLException {
+        return borrow(rawDataSource);
+    }
+
+    // Schedulers and executors: proxied, but no request is counting on this thread
+    @Benchmark
+    public boolean countingConnectionIdle() throws SQLException {
+        return borrow(countingDataSource);
+    }
+
+    // Request threads: the statement is counted
+    @Benchmark
+    public boolean countingConnectionInRequest() throws SQLException {
+        StatementCountingDataSource.start();
+        try {
+            return borrow(countingDataSource);
+        } finally {
+            StatementCountingDataSource.stop();
+        }
+    }
+
+    private static boolean borrow(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            try (PreparedStatement statement = connection.prepareStatement("select 1")) {
+                return autoCommit && statement != null;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.inventory.mapper;
+
+import com.example.inventory.Stubs;
+import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.ProductImage;
+import com.example.inventory.repository.ProductImageRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProductMapperBenchmark {
+
+    @Param({"0", "5"})
+    int imagesPerProduct;
+
+    private ProductMapper mapper;
+    private Product product;
+    private List<Product> page;
+
+    @Setup
+    public void setup() {
+        List<ProductImage> images = LongStream.rangeClosed(1, imagesPerProduct)
+                .mapToObj(id -> ProductImage.builder().id(id).productId(1L).filename(id + ".png")
+                        .url("/api/v1/products/1/images/" + id + ".png").uploadedAt(LocalDateTime.now()).build())
+                .toList();
+        ProductImageRepository imageRepository = Stubs.of(ProductImageRepository.class, Map.of(
+                "findAllByProductId", args -> images,
+                "findAllByProductIdInOrderByIdAsc", args -> images));
+        mapper = new ProductMapper(imageRepository, new ImageMapper());
+
+        product = product(1L);
+        page = LongStream.rangeClosed(1, 20).mapToObj(ProductMapperBenchmark::product).toList();
+    }
+
+    @Benchmark
+    public ProductResponse toResponse() {
+        return mapper.toResponse(product);
+    }
+
+    @Benchmark
+    public List<ProductResponse> toResponseList() {
+        return mapper.toResponseList(page);
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).name("Product " + id).description("Description of product " + id)
+                .price(new BigDecimal("19.99")).quantity(100).version(3L).build();
+    }
+}
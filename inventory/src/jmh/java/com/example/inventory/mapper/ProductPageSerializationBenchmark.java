@@ -0,0 +1,54 @@
+package com.example.inventory.mapper;
+
+import com.example.inventory.dto.ImageResponse;
+import com.example.inventory.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// What GET /api/v1/products spends on writing the body, with the ObjectMapper Spring Boot builds
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductPageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<ProductResponse> page;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ProductResponse> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> new ProductResponse(id, "Product " + id, "Description of product " + id,
+                        new BigDecimal("19.99"), 100,
+                        List.of(new ImageResponse(id, id + ".png",
+                                "/api/v1/products/" + id + "/images/" + id + ".png", LocalDateTime.now())),
+                        1L, null))
+                .toList();
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
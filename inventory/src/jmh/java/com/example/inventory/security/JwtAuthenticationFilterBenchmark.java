@@ -0,0 +1,70 @@
+package com.example.inventory.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request authentication cost. "cached" is the steady state for a client reusing its token;
+// "verify" forces a signature check and user lookup on every request (token cache TTL of 0).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthenticationFilterBenchmark {
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Param({"cached", "verify"})
+    String tokenCache;
+
+    @Param({"false", "true"})
+    boolean stateless;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil();
+        UserDetails user = User.withUsername("admin").password("{noop}secret")
+                .authorities("ROLE_USER", "ROLE_ADMIN").build();
+        // Stands in for the database-backed lookup
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(null) {
+            @Override
+            public UserDetails loadUserByUsername(String username) {
+                return user;
+            }
+        };
+        long maxTtl = "cached".equals(tokenCache) ? 300_000 : 0;
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService,
+                new VerifiedTokenCache(10_000, maxTtl), new TokenVersionRegistry(null), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/products");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user, 0L));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        filter.doFilterInternal(request, response, CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
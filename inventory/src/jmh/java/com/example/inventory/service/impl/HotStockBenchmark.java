@@ -0,0 +1,72 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.Stubs;
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Many threads reserving and releasing one hot product, journal included. stripes=1 is the
+// single-counter baseline; the database flush is not part of the measurement.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class HotStockBenchmark {
+    private static final long PRODUCT_ID = 1L;
+
+    @Param({"1", "16"})
+    int stripes;
+
+    private Path directory;
+    private HotStockJournal journal;
+    private HotStockService hotStock;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("hot-stock-bench");
+        journal = new HotStockJournal(directory.toString(), false);
+        journal.open(0, stripes);
+        Product product = Product.builder().id(PRODUCT_ID).name("Flash sale").quantity(1_000_000).build();
+        ProductRepository productRepository = Stubs.of(ProductRepository.class,
+                Map.of("findById", args -> Optional.of(product)));
+        hotStock = new HotStockService(journal, productRepository, null, null, null, null,
+                true, stripes, "bench", List.of());
+        hotStock.activate(PRODUCT_ID);
+    }
+
+    // Nothing is flushed here, so drop the journal between iterations to bound disk use
+    @Setup(Level.Iteration)
+    public void rotateJournal() throws IOException {
+        journal.deleteBefore(journal.rotate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Long reserveAndRelease() {
+        hotStock.reserve(PRODUCT_ID, 1);
+        return hotStock.release(PRODUCT_ID, 1);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.Stubs;
+import com.example.inventory.dto.ProductChangesResponse;
+import com.example.inventory.mapper.ImageMapper;
+import com.example.inventory.mapper.ProductMapper;
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductImageRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.utils.ChangeCursor;
+import com.example.inventory.utils.CursorCodec;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+
+// One change-feed poll picking up the latest CHANGES updates, against catalogs of growing size,
+// next to the full scan consumers did before. The feed should stay flat; the scan grows with
+// the catalog. Needs a scratch Postgres database (wiped per trial), by default the local one:
+// -Dbench.db.url=jdbc:postgresql://localhost:5432/inventory_bench -Dbench.db.username=... -Dbench.db.password=...
+// Products are stubbed after the query, the mapping cost is covered by ProductMapperBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductChangeFeedBenchmark {
+    private static final int CHANGES = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    int catalogSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductChangeServiceImpl changes;
+    private String cursor;
+
+    @Setup
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("bench.db.url", "jdbc:postgresql://localhost:5432/inventory_bench"),
+                System.getProperty("bench.db.username", "postgres"),
+                System.getProperty("bench.db.password", "password"));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("TRUNCATE products, product_tombstones RESTART IDENTITY CASCADE");
+        jdbcTemplate.update("""
+                INSERT INTO products (name, description, price, quantity)
+                SELECT 'Product ' || g, 'Benchmark product', 9.99, 100 FROM generate_series(1, ?) g
+                """, catalogSize);
+        long seeded = jdbcTemplate.queryForObject("SELECT max(change_xid) FROM products", Long.class);
+        jdbcTemplate.update("""
+                UPDATE products SET quantity = quantity - 1
+                WHERE id IN (SELECT id FROM products ORDER BY random() LIMIT ?)
+                """, CHANGES);
+        jdbcTemplate.execute("VACUUM ANALYZE products");
+        // A consumer that has seen the whole seeded catalog
+        cursor = CursorCodec.encodeChange(new ChangeCursor(seeded, Long.MAX_VALUE, LocalDateTime.now()));
+
+        ProductRepository productRepository = Stubs.of(ProductRepository.class, Map.of(
+                "findAllById", args -> StreamSupport.stream(((Iterable<?>) args[0]).spliterator(), false)
+                        .map(id -> Product.builder().id((Long) id).name("Product " + id)
+                                .price(BigDecimal.TEN).quantity(99).build())
+                        .toList()));
+        ProductImageRepository imageRepository = Stubs.of(ProductImageRepository.class,
+                Map.of("findAllByProductIdInOrderByIdAsc", args -> List.of()));
+        changes = new ProductChangeServiceImpl(jdbcTemplate, productRepository,
+                new ProductMapper(imageRepository, new ImageMapper()), Duration.ofDays(30));
+    }
+
+    @Benchmark
+    public ProductChangesResponse changeFeedPoll() {
+        return changes.getChanges(cursor, CHANGES);
+    }
+
+    // What polling consumers did before the feed: read every product and diff on their side
+    @Benchmark
+    public int fullListPoll() {
+        int[] rows = new int[1];
+        jdbcTemplate.query("SELECT id, quantity, updated_at FROM products ORDER BY id", rs -> {
+            rows[0]++;
+        });
+        return rows[0];
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.inventory.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Storing always uploads the same bytes, so after the first call it measures hashing plus the
+// dedupe check (and keeps the disk from filling up). Run with -t to see concurrent image GETs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileStorageBenchmark {
+
+    @Param({"65536", "1048576"})
+    int size;
+
+    private Path directory;
+    private FileStorageService storage;
+    private MockMultipartFile upload;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("storage-bench");
+        storage = new FileStorageService(directory.toString(), true, new SimpleMeterRegistry());
+        storage.init();
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        upload = new MockMultipartFile("file", "picture.png", "image/png", content);
+        stored = storage.store(upload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public String store() {
+        return storage.store(upload);
+    }
+
+    @Benchmark
+    public StoredFile stat() {
+        return storage.stat(stored);
+    }
+
+    @Benchmark
+    public long loadAndRead() throws IOException {
+        try (InputStream in = storage.load(stored).getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.inventory.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Slf4j
+@Configuration
+public class AsyncConfig {
+
+    // With virtual threads the pools keep their sizes, queues and rejection policies; only
+    // the threads themselves become virtual
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Resizing is CPU heavy, so it runs on its own small pool instead of request threads.
+    // When the queue is full the task is dropped; the variant is then generated on first request.
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(
+            @Value("${file.storage.variants.threads:2}") int threads,
+            @Value("${file.storage.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        configureThreads(executor, "image-variant-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Image variant queue full, deferring generation to first request"));
+        executor.initialize();
+        return executor;
+    }
+
+    // Bounded pool for writing multi-image uploads in parallel. When it is saturated the
+    // request thread writes the file itself, which throttles the uploading client.
+    @Bean
+    public ThreadPoolTaskExecutor imageUploadExecutor(
+            @Value("${file.storage.upload.threads:4}") int threads,
+            @Value("${file.storage.upload.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        configureThreads(executor, "image-upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Drains SSE subscriber buffers. Each subscriber is queued at most once at a time, so the
+    // queue is bounded by the number of subscribers; a client stuck in a blocking write holds
+    // one thread until the socket times out.
+    @Bean
+    public ThreadPoolTaskExecutor productEventExecutor(@Value("${product.events.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        configureThreads(executor, "product-events-");
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt is deliberately slow and CPU bound: at most `threads` hashes run at once and a short
+    // queue absorbs bursts. Past that the login or registration is rejected (503) instead of
+    // parking request threads behind it and starving every other endpoint.
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${auth.hashing.threads:2}") int threads,
+            @Value("${auth.hashing.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        configureThreads(executor, "password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Stores freshly computed password hashes, so database writes never hold a hashing thread.
+    // Only the hashing pool feeds it, which bounds its backlog by the hashing throughput.
+    @Bean
+    public ThreadPoolTaskExecutor passwordStoreExecutor(@Value("${auth.hashing.store-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        configureThreads(executor, "password-store-");
+        executor.initialize();
+        return executor;
+    }
+
+    private void configureThreads(ThreadPoolTaskExecutor executor, String namePrefix) {
+        executor.setThreadNamePrefix(namePrefix);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 0).factory());
+        }
+    }
+}
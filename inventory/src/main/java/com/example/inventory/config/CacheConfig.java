@@ -0,0 +1,30 @@
+package com.example.inventory.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_PAGES = "productPages";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${product.cache.spec:maximumSize=10000,expireAfterWrite=60s}") String spec,
+            @Value("${product.page-cache.spec:maximumSize=500,expireAfterWrite=5m}") String pageSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS);
+        cacheManager.setCaffeine(Caffeine.from(spec).recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRODUCT_PAGES, Caffeine.from(pageSpec).recordStats().build());
+        // Evictions issued inside a transaction are applied after commit, so a concurrent
+        // read can't re-cache the old row between the evict and the commit
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
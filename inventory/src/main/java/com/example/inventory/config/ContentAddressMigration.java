@@ -0,0 +1,62 @@
+package com.example.inventory.config;
+
+import com.example.inventory.model.ProductImage;
+import com.example.inventory.repository.ProductImageRepository;
+import com.example.inventory.utils.FileStorageService;
+import com.example.inventory.utils.ImageCache;
+import com.example.inventory.utils.ImageVariantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+// One-off migration of files stored under timestamp_UUID names to content-addressed names.
+// Enable with file.storage.migrate-to-content-addressed=true; it is idempotent and safe to re-run.
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "file.storage.migrate-to-content-addressed", havingValue = "true")
+public class ContentAddressMigration implements CommandLineRunner {
+    private static final Pattern CONTENT_ADDRESS = Pattern.compile("^[0-9a-f]{64}(\\.[^.]+)?$");
+
+    private final ProductImageRepository imageRepository;
+    private final FileStorageService fileStorage;
+    private final ImageVariantService variantService;
+    private final ImageCache imageCache;
+
+    @Override
+    public void run(String... args) {
+        if (!fileStorage.isContentAddressed()) {
+            log.warn("Skipping content-address migration: file.storage.content-addressed is disabled");
+            return;
+        }
+
+        int migrated = 0;
+        for (ProductImage img : imageRepository.findAll()) {
+            String filename = img.getFilename();
+            if (CONTENT_ADDRESS.matcher(filename).matches()) {
+                continue;
+            }
+            if (!fileStorage.exists(filename)) {
+                log.warn("Skipping image {}: file {} not found", img.getId(), filename);
+                continue;
+            }
+            // Copy, repoint the row, then delete the old name once nothing references it. A run
+            // interrupted at any step leaves every row pointing at an existing file.
+            String address = fileStorage.copyToContentAddress(filename);
+            img.setFilename(address);
+            img.setUrl(img.getUrl().replace(filename, address));
+            imageRepository.save(img);
+            if (imageRepository.countByFilename(filename) == 0) {
+                fileStorage.deleteIfExists(filename);
+                variantService.deleteVariants(filename);
+                imageCache.invalidate(filename);
+            }
+            migrated++;
+        }
+        log.info("Content-address migration finished: {} images migrated", migrated);
+    }
+}
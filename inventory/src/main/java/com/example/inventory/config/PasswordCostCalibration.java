@@ -0,0 +1,77 @@
+package com.example.inventory.config;
+
+import com.example.inventory.security.PasswordEncoders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Measures verify latency of candidate BCrypt strengths and PBKDF2 iteration counts on this
+// machine and logs the most expensive setting that stays within the target. Together with
+// auth.hashing.threads this bounds the CPU a node spends on logins. Enable with
+// auth.password.calibrate=true; it runs once at startup and changes nothing.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.password.calibrate", havingValue = "true")
+public class PasswordCostCalibration implements CommandLineRunner {
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+
+    private final List<Integer> bcryptStrengths;
+    private final List<Integer> pbkdf2Iterations;
+    private final long targetMillis;
+    private final int samples;
+
+    public PasswordCostCalibration(
+            @Value("${auth.password.calibration.bcrypt-strengths:8,9,10,11,12,13,14}") List<Integer> bcryptStrengths,
+            @Value("${auth.password.calibration.pbkdf2-iterations:100000,210000,310000,600000}") List<Integer> pbkdf2Iterations,
+            @Value("${auth.password.calibration.target-millis:250}") long targetMillis,
+            @Value("${auth.password.calibration.samples:5}") int samples) {
+        this.bcryptStrengths = bcryptStrengths;
+        this.pbkdf2Iterations = pbkdf2Iterations;
+        this.targetMillis = targetMillis;
+        this.samples = samples;
+    }
+
+    @Override
+    public void run(String... args) {
+        log.info("Calibrating password hashing, target verify latency {} ms, {} cores",
+                targetMillis, Runtime.getRuntime().availableProcessors());
+        calibrate(PasswordEncoders.BCRYPT, "strength", bcryptStrengths, PasswordEncoders::bcrypt);
+        calibrate(PasswordEncoders.PBKDF2, "iterations", pbkdf2Iterations, PasswordEncoders::pbkdf2);
+    }
+
+    private void calibrate(String algorithm, String parameter, List<Integer> candidates,
+                           IntFunction<PasswordEncoder> encoders) {
+        Integer recommended = null;
+        for (int cost : candidates.stream().sorted().toList()) {
+            PasswordEncoder encoder = encoders.apply(cost);
+            String hash = encoder.encode(SAMPLE_PASSWORD);
+            long[] millis = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                long start = System.nanoTime();
+                encoder.matches(SAMPLE_PASSWORD, hash);
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            long median = millis[samples / 2];
+            log.info("Password calibration {} {}={}: verify median {} ms, max {} ms, ~{} logins/s per hashing thread",
+                    algorithm, parameter, cost, median, millis[samples - 1], median == 0 ? "n/a" : 1000 / median);
+            if (median > targetMillis) {
+                // Higher costs only get slower; each step would take longer than the last
+                break;
+            }
+            recommended = cost;
+        }
+        if (recommended == null) {
+            log.warn("Password calibration {}: no candidate {} verifies within {} ms", algorithm, parameter, targetMillis);
+        } else {
+            log.info("Password calibration {}: recommended {}={}", algorithm, parameter, recommended);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.inventory.config;
+
+import com.example.inventory.profiling.RequestProfile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+// Counts statements prepared on the current thread between start() and stop(). Threads that
+// aren't counting (schedulers, executors) only pay for the ThreadLocal read. While a request is
+// being profiled, statements are also reported to RequestProfile; only requests sampled for
+// timing get the Statement proxy that times execution.
+public class StatementCountingDataSource extends DelegatingDataSource {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    boolean statement = STATEMENT_METHODS.contains(method.getName());
+                    if (statement) {
+                        int[] count = COUNT.get();
+                        if (count != null) {
+                            count[0]++;
+                        }
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        RequestProfile.statementPrepared(sql);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (statement && result instanceof Statement created && RequestProfile.timing()) {
+                        return timed(created, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private static Object timed(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                RequestProfile.statementExecuted(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.inventory.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+// Runs Tomcat request handling on virtual threads, so requests blocked on JDBC or on slow
+// uploads no longer use up a fixed pool of 200 platform threads. Uses the property name
+// Spring Boot 3.2 adopted, so the switch keeps working after an upgrade.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        log.info("Handling requests on virtual threads");
+        return handler -> handler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+
+    // Without the request thread pool as a natural limit, thousands of requests can queue for
+    // the Hikari pool at once; the semaphore in front of it queues them fairly instead. A permit
+    // holder normally gets an idle connection at once, so the semaphore wait is the real budget and
+    // Hikari's connection-timeout only adds up when the pool is still (re)opening connections.
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSource(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize,
+            @Value("${database.permit-timeout:10000}") long timeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, maxPoolSize, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -5,6 +5,7 @@ import com.example.inventory.dto.RoleAssignmentDto;
 import com.example.inventory.dto.UserLoginDto;
 import com.example.inventory.dto.UserRegistrationDto;
 import com.example.inventory.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -21,15 +24,17 @@ public class AuthController {
     private final UserService userService;
 
     @PostMapping("/register")
-    public ResponseEntity<String> register(@Valid @RequestBody UserRegistrationDto dto) {
-        userService.register(dto);
-        return ResponseEntity.ok("User registered");
+    public CompletableFuture<ResponseEntity<String>> register(@Valid @RequestBody UserRegistrationDto dto) {
+        return userService.register(dto)
+                .thenApply(done -> ResponseEntity.ok("User registered"));
     }
 
+    // getRemoteAddr is the client behind trusted proxies (server.forward-headers-strategy=native)
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody UserLoginDto dto) {
-        String token = userService.login(dto);
-        return ResponseEntity.ok(new AuthResponse(token));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody UserLoginDto dto,
+                                                                 HttpServletRequest request) {
+        return userService.login(dto, request.getRemoteAddr())
+                .thenApply(token -> ResponseEntity.ok(new AuthResponse(token)));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -1,24 +1,42 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.dto.ImageBatchUploadResponse;
+import com.example.inventory.dto.ImageResponse;
+import com.example.inventory.dto.ProductChangesResponse;
+import com.example.inventory.dto.ProductImportResponse;
 import com.example.inventory.dto.ProductRequest;
 import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.dto.ProductSliceResponse;
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.service.ProductChangeService;
+import com.example.inventory.service.ProductExportService;
 import com.example.inventory.service.ProductImageService;
+import com.example.inventory.service.ProductImportService;
 import com.example.inventory.service.ProductService;
+import com.example.inventory.utils.VersionTag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.*;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
@@ -27,6 +45,9 @@ import java.math.BigDecimal;
 public class ProductController {
     private final ProductService productService;
     private final ProductImageService imageService;
+    private final ProductImportService importService;
+    private final ProductExportService exportService;
+    private final ProductChangeService changeService;
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -39,30 +60,31 @@ public class ProductController {
             @RequestParam(value = "images", required = false) MultipartFile[] images) {
 
         ProductRequest request = ProductRequest.builder()
-                .name(name.trim())
-                .description(description != null ? description.trim() : "")
+                .name(name)
+                .description(description)
                 .price(price)
                 .quantity(quantity)
-                .build();
+                .build()
+                .normalized();
 
         ProductResponse response = productService.createProduct(request);
-
-        if (images != null && images.length > 0) {
-            for (MultipartFile image : images) {
-                if (image != null && !image.isEmpty()) {
-                    try {
-                        imageService.uploadImage(response.getId(), image);
-                    } catch (Exception e) {
-                        log.error("Failed to upload image for product {}: {}", response.getId(), e.getMessage());
-                    }
-                }
-            }
-            response = productService.getProductById(response.getId());
-        }
+        attachImages(response, images);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // Body is read as a stream (CSV with a name,description,price,quantity header, or one JSON object per line)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        ProductImportResponse response = MediaType.valueOf("text/csv").includes(MediaType.parseMediaType(contentType)) ?
+                importService.importCsv(body) :
+                importService.importNdjson(body);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> listProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -71,15 +93,57 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(PageRequest.of(page, size), name));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ProductSliceResponse> scrollProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Size must be at least 1") @Max(value = 100, message = "Size cannot exceed 100") int size,
+            @RequestParam(required = false) String name) {
+        return ResponseEntity.ok(productService.getProductsAfter(after, size, name));
+    }
+
+    // Changed and deleted products since the cursor, oldest first; poll again with nextCursor
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesResponse> productChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") @Min(value = 1, message = "Limit must be at least 1") @Max(value = 1000, message = "Limit cannot exceed 1000") int limit) {
+        return ResponseEntity.ok(changeService.getChanges(since, limit));
+    }
+
+    // Written straight to the response stream, so memory use doesn't grow with the catalog
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + (csv ? "csv" : "ndjson") + "\"");
+        if (csv) {
+            exportService.exportCsv(response.getOutputStream());
+        } else {
+            exportService.exportNdjson(response.getOutputStream());
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id, WebRequest webRequest) {
+        // Revalidation only needs the version, not the mapped product
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(VersionTag.format(productService.getProductVersion(id)))) {
+            return null;
+        }
+        ProductResponse response = productService.getProductById(id);
+        return ResponseEntity.ok().eTag(VersionTag.format(response.getVersion())).body(response);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestParam("name") @NotBlank(message = "Product name is required") @Size(min = 2, max = 255, message = "Product name must be between 2 and 255 characters") String name,
             @RequestParam("description") @Size(max = 1000, message = "Description cannot exceed 1000 characters") String description,
             @RequestParam("price") @NotNull(message = "Price is required") @DecimalMin(value = "0.0", inclusive = true, message = "Price must be positive") BigDecimal price,
@@ -87,34 +151,55 @@ public class ProductController {
             @RequestParam(value = "images", required = false) MultipartFile[] images) {
 
         ProductRequest request = ProductRequest.builder()
-                .name(name.trim())
-                .description(description != null ? description.trim() : "")
+                .name(name)
+                .description(description)
                 .price(price)
                 .quantity(quantity)
-                .build();
-
-        ProductResponse response = productService.updateProduct(id, request);
-
-        if (images != null && images.length > 0) {
-            for (MultipartFile image : images) {
-                if (image != null && !image.isEmpty()) {
-                    try {
-                        imageService.uploadImage(response.getId(), image);
-                    } catch (Exception e) {
-                        log.error("Failed to upload image for product {}: {}", response.getId(), e.getMessage());
-                    }
-                }
-            }
-            response = productService.getProductById(response.getId());
-        }
+                .build()
+                .normalized();
 
-        return ResponseEntity.ok(response);
+        ProductResponse response = productService.updateProduct(id, request, VersionTag.parse(ifMatch));
+        attachImages(response, images);
+
+        return ResponseEntity.ok().eTag(VersionTag.format(response.getVersion())).body(response);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        productService.deleteProduct(id);
+    public ResponseEntity<Void> deleteProduct(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        productService.deleteProduct(id, VersionTag.parse(ifMatch));
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // Uploads the images in one batch and merges the result into the response,
+    // instead of re-reading the product after the uploads
+    private void attachImages(ProductResponse response, MultipartFile[] images) {
+        if (images == null || images.length == 0) {
+            return;
+        }
+        List<MultipartFile> files = Arrays.stream(images)
+                .filter(image -> image != null && !image.isEmpty())
+                .toList();
+        if (files.isEmpty()) {
+            return;
+        }
+
+        ImageBatchUploadResponse result = imageService.uploadImages(response.getId(), files);
+        if (!result.getUploaded().isEmpty()) {
+            List<ImageResponse> merged = new ArrayList<>();
+            if (response.getImages() != null) {
+                merged.addAll(response.getImages());
+            }
+            merged.addAll(result.getUploaded());
+            response.setImages(merged);
+            // The uploads bumped the product version
+            response.setVersion(productService.getProductVersion(response.getId()));
+        }
+        if (!result.getFailed().isEmpty()) {
+            log.warn("{} of {} images failed to upload for product {}",
+                    result.getFailed().size(), files.size(), response.getId());
+        }
+        response.setImageErrors(result.getFailed());
+    }
+}
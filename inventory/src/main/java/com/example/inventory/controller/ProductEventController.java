@@ -0,0 +1,23 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.service.impl.ProductEventStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/products")
+public class ProductEventController {
+    private final ProductEventStream eventStream;
+
+    // Pushes CREATED, UPDATED, DELETED and STOCK_CHANGED events. A "resync" event means some
+    // events were dropped for this client; it should re-read (e.g. via /changes) and carry on.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return eventStream.subscribe();
+    }
+}
@@ -1,25 +1,51 @@
 package com.example.inventory.controller;
 
 import com.example.inventory.dto.ImageResponse;
+import com.example.inventory.exception.BadRequestException;
 import com.example.inventory.service.ProductImageService;
+import com.example.inventory.utils.CachedImage;
+import com.example.inventory.utils.ImageCache;
+import com.example.inventory.utils.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URLConnection;
+import java.time.Duration;
 import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/v1/products/{productId}/images")
+@Validated
 public class ProductImageController {
     private final ProductImageService imageService;
+    private final ImageCache imageCache;
+
+    // Stored filenames are timestamp + UUID and never rewritten, so responses can be cached forever
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl FALLBACK = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Value("${file.storage.sendfile-min-size:49152}")
+    private long sendfileMinSize;
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -28,12 +54,12 @@ public class ProductImageController {
             @RequestParam("file") MultipartFile file) {
 
         if (file.isEmpty()) {
-            throw new IllegalArgumentException("File cannot be empty");
+            throw new BadRequestException("File cannot be empty");
         }
 
         String contentType = file.getContentType();
         if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("File must be an image");
+            throw new BadRequestException("File must be an image");
         }
 
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -46,9 +72,51 @@ public class ProductImageController {
     }
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serve(@PathVariable String filename) {
-        Resource resource = imageService.loadImage(filename);
+    public ResponseEntity<Resource> serve(@PathVariable String filename,
+                                          @RequestParam(value = "w", required = false) @Min(1) Integer width,
+                                          WebRequest webRequest, HttpServletRequest request) {
+        // Hot images are answered from memory without touching the file system
+        String name = imageService.imageName(filename, width);
+        CachedImage cached = imageCache.get(name);
+        if (cached != null) {
+            String etag = "\"" + name + "\"";
+            if (webRequest.checkNotModified(etag, cached.lastModified())) {
+                return null;
+            }
+            return headers(filename, etag, cached.lastModified(), false).body(cached.asResource());
+        }
+
+        StoredFile file = imageService.statImage(filename, width);
+        // A resized request answered with the original must not be pinned in caches for a year
+        boolean fallback = width != null && file.filename().equals(filename);
+        String etag = "\"" + file.filename() + "\"";
+        if (webRequest.checkNotModified(etag, file.lastModified())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder builder = headers(filename, etag, file.lastModified(), fallback);
+
+        // Fallbacks are temporary until the variant exists, so only real files are cached
+        if (!fallback) {
+            cached = imageCache.admit(file);
+            if (cached != null) {
+                return builder.body(cached.asResource());
+            }
+        }
+
+        // Full-body responses for larger files go through Tomcat sendfile (kernel zero-copy);
+        // range requests (206) and small files are streamed by Spring's resource converters
+        if (file.size() >= sendfileMinSize && request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.size());
+            return builder.contentLength(file.size()).build();
+        }
+
+        return builder.body(new FileSystemResource(file.path()));
+    }
 
+    private ResponseEntity.BodyBuilder headers(String filename, String etag, long lastModified, boolean fallback) {
         String contentType = null;
         try {
             contentType = URLConnection.guessContentTypeFromName(filename);
@@ -62,8 +130,11 @@ public class ProductImageController {
 
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .body(resource);
+                .cacheControl(fallback ? FALLBACK : IMMUTABLE)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
     }
 
     @PreAuthorize("hasRole('ADMIN')")
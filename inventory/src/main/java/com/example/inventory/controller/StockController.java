@@ -0,0 +1,66 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.BasketStockRequest;
+import com.example.inventory.dto.StockAdjustRequest;
+import com.example.inventory.dto.StockChangeRequest;
+import com.example.inventory.dto.StockResponse;
+import com.example.inventory.service.StockService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/products")
+public class StockController {
+    private final StockService stockService;
+
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<StockResponse> reserve(@PathVariable Long id, @Valid @RequestBody StockChangeRequest request) {
+        return ResponseEntity.ok(stockService.reserve(id, request.getQuantity()));
+    }
+
+    // Releases aren't tied to a reservation, so they are an admin correction like adjust
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<StockResponse> release(@PathVariable Long id, @Valid @RequestBody StockChangeRequest request) {
+        return ResponseEntity.ok(stockService.release(id, request.getQuantity()));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<StockResponse> adjust(@PathVariable Long id, @Valid @RequestBody StockAdjustRequest request) {
+        return ResponseEntity.ok(stockService.adjust(id, request.getDelta()));
+    }
+
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<List<StockResponse>> reserveBasket(@Valid @RequestBody BasketStockRequest request) {
+        return ResponseEntity.ok(stockService.reserveAll(request.getLines()));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/stock/release")
+    public ResponseEntity<List<StockResponse>> releaseBasket(@Valid @RequestBody BasketStockRequest request) {
+        return ResponseEntity.ok(stockService.releaseAll(request.getLines()));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/stock/hot")
+    public ResponseEntity<Void> markHot(@PathVariable Long id) {
+        stockService.markHot(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}/stock/hot")
+    public ResponseEntity<Void> unmarkHot(@PathVariable Long id) {
+        stockService.unmarkHot(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketStockRequest {
+    @NotEmpty(message = "At least one line is required")
+    private List<@Valid StockLine> lines;
+}
@@ -0,0 +1,15 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBatchUploadResponse {
+    private List<ImageResponse> uploaded;
+    private List<ImageUploadError> failed;
+}
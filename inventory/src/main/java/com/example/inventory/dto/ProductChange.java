@@ -0,0 +1,23 @@
+package com.example.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    public enum Type { UPSERT, DELETE }
+
+    private Long id;
+    private Type type;
+    private LocalDateTime changedAt;
+
+    // Current state of the product; absent for deletes
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ProductResponse product;
+}
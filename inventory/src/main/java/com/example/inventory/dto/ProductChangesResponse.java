@@ -0,0 +1,17 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponse {
+    private List<ProductChange> changes;
+    private boolean hasMore;
+    // Always set, also when there were no changes: pass it as since on the next poll
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published after commit and pushed to SSE subscribers; the payload is deliberately small,
+// clients re-read the product when they need more than the quantity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEvent {
+    public enum Type { CREATED, UPDATED, DELETED, STOCK_CHANGED }
+
+    private Long productId;
+    private Type type;
+    private Integer quantity;
+
+    // What a subscriber that hasn't seen previous yet needs to know once both have happened
+    public static ProductEvent coalesce(ProductEvent previous, ProductEvent next) {
+        if (previous == null || next.getType() == Type.DELETED || previous.getType() == Type.DELETED) {
+            return next;
+        }
+        Integer quantity = next.getQuantity() != null ? next.getQuantity() : previous.getQuantity();
+        Type type = previous.getType() == Type.CREATED ? Type.CREATED :
+                next.getType() == Type.STOCK_CHANGED ? previous.getType() : next.getType();
+        return new ProductEvent(next.getProductId(), type, quantity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long total;
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+}
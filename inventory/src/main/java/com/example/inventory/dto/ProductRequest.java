@@ -28,4 +28,14 @@ public class ProductRequest {
     @NotNull(message = "Quantity is required")
     @Min(value = 0, message = "Quantity must be positive")
     private Integer quantity;
-}
\ No newline at end of file
+
+    // Names and descriptions are stored trimmed. Every entry path (form, import) validates the
+    // trimmed values, so the same input is accepted or rejected, and stored, the same way.
+    public ProductRequest normalized() {
+        return new ProductRequest(
+                name != null ? name.trim() : null,
+                description != null ? description.trim() : "",
+                price,
+                quantity);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.inventory.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,4 +18,10 @@ public class ProductResponse {
     private BigDecimal price;
     private Integer quantity;
     private List<ImageResponse> images;
+    // Same value as the ETag of GET /products/{id}, so list clients can send If-Match without a re-read
+    private Long version;
+
+    // Only set on create/update responses when some of the submitted images could not be stored
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<ImageUploadError> imageErrors;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSliceResponse {
+    private List<ProductResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
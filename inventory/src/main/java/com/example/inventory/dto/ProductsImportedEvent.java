@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published once a bulk import has committed rows; too many products to announce one by one,
+// so SSE subscribers get a single resync instead
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private long imported;
+}
@@ -0,0 +1,18 @@
+package com.example.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustRequest {
+    @NotNull(message = "Delta is required")
+    @Min(value = -StockLine.MAX_QUANTITY, message = "Delta must be at least -1000000")
+    @Max(value = StockLine.MAX_QUANTITY, message = "Delta must be at most 1000000")
+    private Integer delta;
+}
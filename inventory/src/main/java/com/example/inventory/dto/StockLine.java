@@ -0,0 +1,24 @@
+package com.example.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLine {
+    // Upper bound for one stock change, far below the int range of products.quantity
+    public static final int MAX_QUANTITY = 1_000_000;
+
+    @NotNull(message = "Product id is required")
+    private Long productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = MAX_QUANTITY, message = "Quantity must be at most 1000000")
+    private Integer quantity;
+}
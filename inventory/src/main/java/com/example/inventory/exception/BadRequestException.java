@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String msg) {
+        super(msg);
+    }
+}
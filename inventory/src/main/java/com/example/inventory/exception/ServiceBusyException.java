@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String msg) {
+        super(msg);
+    }
+}
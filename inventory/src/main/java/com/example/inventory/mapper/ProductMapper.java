@@ -1,13 +1,21 @@
 package com.example.inventory.mapper;
 
+import com.example.inventory.dto.ImageResponse;
 import com.example.inventory.dto.ProductRequest;
 import com.example.inventory.dto.ProductResponse;
 import com.example.inventory.model.Product;
+import com.example.inventory.model.ProductImage;
 import com.example.inventory.repository.ProductImageRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -15,23 +23,52 @@ public class ProductMapper {
     private final ProductImageRepository imageRepository;
     private final ImageMapper imageMapper;
 
+    @Timed("inventory.products.mapper")
     public ProductResponse toResponse(Product product) {
         if (product == null) {
             return null;
         }
 
-        List<com.example.inventory.dto.ImageResponse> images = imageRepository.findAllByProductId(product.getId())
+        List<ImageResponse> images = imageRepository.findAllByProductId(product.getId())
                 .stream()
                 .map(imageMapper::toResponse)
                 .toList();
 
+        return toResponse(product, images);
+    }
+
+    // Loads the images for the whole page with a single IN query instead of one query per product
+    public Page<ProductResponse> toResponsePage(Page<Product> page) {
+        return new PageImpl<>(toResponseList(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    @Timed("inventory.products.mapper")
+    public List<ProductResponse> toResponseList(List<Product> products) {
+        if (products.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        Map<Long, List<ImageResponse>> imagesByProduct = imageRepository.findAllByProductIdInOrderByIdAsc(ids)
+                .stream()
+                .collect(Collectors.groupingBy(ProductImage::getProductId,
+                        Collectors.mapping(imageMapper::toResponse, Collectors.toList())));
+
+        return products.stream()
+                .map(product -> toResponse(product, imagesByProduct.getOrDefault(product.getId(), List.of())))
+                .toList();
+    }
+
+    private ProductResponse toResponse(Product product, List<ImageResponse> images) {
         return new ProductResponse(
                 product.getId(),
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
                 product.getQuantity(),
-                images.isEmpty() ? null : images
+                images.isEmpty() ? null : images,
+                product.getVersion(),
+                null
         );
     }
 
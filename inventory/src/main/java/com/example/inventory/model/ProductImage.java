@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 public class ProductImage {
+    // Pooled sequence instead of IDENTITY so Hibernate can batch multi-image inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_images_seq")
+    @SequenceGenerator(name = "product_images_seq", sequenceName = "product_images_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_id", insertable = false, updatable = false)
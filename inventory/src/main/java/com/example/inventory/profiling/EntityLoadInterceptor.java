@@ -0,0 +1,14 @@
+package com.example.inventory.profiling;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+// Counts entities Hibernate materializes for the current request
+public class EntityLoadInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestProfile.entityLoaded();
+        return false;
+    }
+}
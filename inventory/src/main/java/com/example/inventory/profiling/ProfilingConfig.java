@@ -0,0 +1,42 @@
+package com.example.inventory.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Opt-in: with profiling.enabled=false none of these beans exist and the hooks in the data
+// source, storage and auth code reduce to one ThreadLocal read
+@Configuration
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true")
+public class ProfilingConfig {
+
+    @Bean
+    public RequestProfileBuffer requestProfileBuffer(@Value("${profiling.buffer-size:200}") int size) {
+        return new RequestProfileBuffer(size);
+    }
+
+    // Ahead of the security chain, so JWT verification is part of the profile
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(
+            RequestProfileBuffer buffer,
+            MeterRegistry meterRegistry,
+            @Value("${profiling.sample-rate:0.01}") double sampleRate,
+            @Value("${profiling.slow-threshold:500}") long slowThresholdMillis,
+            @Value("${profiling.repeated-statement-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<RequestProfilingFilter> registration = new FilterRegistrationBean<>(
+                new RequestProfilingFilter(buffer, meterRegistry, sampleRate, slowThresholdMillis, repeatThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadInterceptor() {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new EntityLoadInterceptor());
+    }
+}
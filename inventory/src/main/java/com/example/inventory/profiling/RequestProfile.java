@@ -0,0 +1,146 @@
+package com.example.inventory.profiling;
+
+import java.util.Arrays;
+
+// Per-request counters filled in by the JDBC, Hibernate, storage and auth hooks: primitive fields
+// and fixed arrays, kept per thread and reset per request. Statement execution is only timed for
+// requests sampled up front, since that wraps every statement in a proxy; slow and N+1 reports
+// carry counts only. The static methods are no-ops when no request on this thread is being profiled.
+public final class RequestProfile {
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+    private static final int SQL_SLOTS = 32;
+
+    private boolean running;
+    private boolean timed;
+    int statements;
+    long statementNanos;
+    int entityLoads;
+    int fileOperations;
+    long fileNanos;
+    long authNanos;
+    // Statement text -> times prepared, for spotting one query repeated per row (N+1)
+    private final String[] sql = new String[SQL_SLOTS];
+    private final int[] sqlCounts = new int[SQL_SLOTS];
+
+    static RequestProfile begin(boolean timed) {
+        RequestProfile profile = CURRENT.get();
+        if (profile == null) {
+            profile = new RequestProfile();
+            CURRENT.set(profile);
+        }
+        profile.reset();
+        profile.running = true;
+        profile.timed = timed;
+        return profile;
+    }
+
+    // The instance stays with the thread for its next request. Pooled threads reuse it; a virtual
+    // thread ends with its request, so there it's one small object per request.
+    static void end() {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.running = false;
+        }
+    }
+
+    public static boolean active() {
+        RequestProfile profile = CURRENT.get();
+        return profile != null && profile.running;
+    }
+
+    public static boolean timing() {
+        RequestProfile profile = CURRENT.get();
+        return profile != null && profile.running && profile.timed;
+    }
+
+    public static void statementPrepared(String statement) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.running) {
+            profile.statements++;
+            if (statement != null) {
+                profile.countSql(statement);
+            }
+        }
+    }
+
+    public static void statementExecuted(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.running && profile.timed) {
+            profile.statementNanos += nanos;
+        }
+    }
+
+    public static void entityLoaded() {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.running) {
+            profile.entityLoads++;
+        }
+    }
+
+    public static void fileOperation(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.running) {
+            profile.fileOperations++;
+            profile.fileNanos += nanos;
+        }
+    }
+
+    public static void auth(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null && profile.running) {
+            profile.authNanos += nanos;
+        }
+    }
+
+    boolean timed() {
+        return timed;
+    }
+
+    private void reset() {
+        statements = 0;
+        statementNanos = 0;
+        entityLoads = 0;
+        fileOperations = 0;
+        fileNanos = 0;
+        authNanos = 0;
+        Arrays.fill(sql, null);
+        Arrays.fill(sqlCounts, 0);
+    }
+
+    // Open addressing on the statement text; Hibernate and JdbcTemplate reuse the same String
+    // instances, so the identity check usually hits before equals is needed
+    private void countSql(String statement) {
+        int start = (statement.hashCode() & 0x7fffffff) % SQL_SLOTS;
+        for (int i = 0; i < SQL_SLOTS; i++) {
+            int slot = (start + i) % SQL_SLOTS;
+            if (sql[slot] == null) {
+                sql[slot] = statement;
+                sqlCounts[slot] = 1;
+                return;
+            }
+            if (sql[slot] == statement || sql[slot].equals(statement)) {
+                sqlCounts[slot]++;
+                return;
+            }
+        }
+        // More than SQL_SLOTS distinct statements: stop tracking new ones, counts stay correct
+    }
+
+    int mostRepeatedSlot() {
+        int best = -1;
+        for (int slot = 0; slot < SQL_SLOTS; slot++) {
+            if (sql[slot] != null && (best < 0 || sqlCounts[slot] > sqlCounts[best])) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    String sqlAt(int slot) {
+        return sql[slot];
+    }
+
+    int sqlCountAt(int slot) {
+        return sqlCounts[slot];
+    }
+}
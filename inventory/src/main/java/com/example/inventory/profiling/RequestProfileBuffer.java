@@ -0,0 +1,37 @@
+package com.example.inventory.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fixed-size ring of the latest profiled requests, newest first at /actuator/requestprofiles
+@Endpoint(id = "requestprofiles")
+public class RequestProfileBuffer {
+    private final AtomicReferenceArray<RequestProfileEntry> entries;
+    private final AtomicLong next = new AtomicLong();
+
+    public RequestProfileBuffer(int size) {
+        this.entries = new AtomicReferenceArray<>(size);
+    }
+
+    public void add(RequestProfileEntry entry) {
+        entries.set((int) (next.getAndIncrement() % entries.length()), entry);
+    }
+
+    @ReadOperation
+    public List<RequestProfileEntry> profiles() {
+        long last = next.get();
+        List<RequestProfileEntry> result = new ArrayList<>();
+        for (long i = last - 1; i >= 0 && i >= last - entries.length(); i--) {
+            RequestProfileEntry entry = entries.get((int) (i % entries.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+}
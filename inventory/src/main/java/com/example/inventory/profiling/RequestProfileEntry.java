@@ -0,0 +1,24 @@
+package com.example.inventory.profiling;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+// One profiled request as logged and as returned by /actuator/requestprofiles. statementMillis is
+// null unless the request was sampled, as only sampled requests time their statements.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RequestProfileEntry(Instant at,
+                                  String method,
+                                  String uri,
+                                  int status,
+                                  String reason,
+                                  long totalMillis,
+                                  int statements,
+                                  Long statementMillis,
+                                  int entityLoads,
+                                  int fileOperations,
+                                  long fileMillis,
+                                  long authMillis,
+                                  String repeatedSql,
+                                  Integer repeatedSqlCount) {
+}
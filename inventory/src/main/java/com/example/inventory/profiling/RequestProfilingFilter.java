@@ -0,0 +1,116 @@
+package com.example.inventory.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Collects a RequestProfile for every request and reports it when the request was sampled,
+// slower than the threshold, or prepared the same statement often enough to look like an N+1.
+// Sampling is decided before the request runs, so only sampled requests pay for statement timing.
+// Reports go to the "inventory.profiling" logger as one key=value line and to the ring buffer.
+@Slf4j(topic = "inventory.profiling")
+public class RequestProfilingFilter extends OncePerRequestFilter {
+    private final RequestProfileBuffer buffer;
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int repeatThreshold;
+
+    public RequestProfilingFilter(RequestProfileBuffer buffer, MeterRegistry meterRegistry,
+                                  double sampleRate, long slowThresholdMillis, int repeatThreshold) {
+        this.buffer = buffer;
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        RequestProfile profile = RequestProfile.begin(sampled);
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long total = System.nanoTime() - start;
+            RequestProfile.end();
+            report(request, response, profile, total, sampled);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, RequestProfile profile, long total,
+                        boolean sampled) {
+        int slot = profile.mostRepeatedSlot();
+        boolean repeated = slot >= 0 && profile.sqlCountAt(slot) >= repeatThreshold;
+        boolean slow = total >= slowThresholdNanos;
+        if (!repeated && !slow && !sampled) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+        if (repeated) {
+            Counter.builder("inventory.profiling.repeated.statements")
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        RequestProfileEntry entry = new RequestProfileEntry(
+                Instant.now(),
+                request.getMethod(),
+                uri,
+                response.getStatus(),
+                slow ? "slow" : repeated ? "repeated-sql" : "sampled",
+                TimeUnit.NANOSECONDS.toMillis(total),
+                profile.statements,
+                profile.timed() ? TimeUnit.NANOSECONDS.toMillis(profile.statementNanos) : null,
+                profile.entityLoads,
+                profile.fileOperations,
+                TimeUnit.NANOSECONDS.toMillis(profile.fileNanos),
+                TimeUnit.NANOSECONDS.toMillis(profile.authNanos),
+                repeated ? profile.sqlAt(slot) : null,
+                repeated ? profile.sqlCountAt(slot) : null);
+        buffer.add(entry);
+
+        if (slow || repeated) {
+            log.warn("{}", format(entry));
+        } else {
+            log.info("{}", format(entry));
+        }
+    }
+
+    private static String format(RequestProfileEntry entry) {
+        StringBuilder line = new StringBuilder(160)
+                .append("reason=").append(entry.reason())
+                .append(" method=").append(entry.method())
+                .append(" uri=").append(entry.uri())
+                .append(" status=").append(entry.status())
+                .append(" total_ms=").append(entry.totalMillis())
+                .append(" sql=").append(entry.statements());
+        if (entry.statementMillis() != null) {
+            line.append(" sql_ms=").append(entry.statementMillis());
+        }
+        line.append(" entity_loads=").append(entry.entityLoads())
+                .append(" file_ops=").append(entry.fileOperations())
+                .append(" file_ms=").append(entry.fileMillis())
+                .append(" auth_ms=").append(entry.authMillis());
+        if (entry.repeatedSql() != null) {
+            line.append(" repeated_sql_count=").append(entry.repeatedSqlCount())
+                    .append(" repeated_sql=\"").append(entry.repeatedSql().replace('\n', ' ')).append('"');
+        }
+        return line.toString();
+    }
+}
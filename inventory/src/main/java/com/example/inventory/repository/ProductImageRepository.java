@@ -4,9 +4,14 @@ import com.example.inventory.model.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findAllByProductId(Long productId);
-}
\ No newline at end of file
+
+    List<ProductImage> findAllByProductIdInOrderByIdAsc(Collection<Long> productIds);
+
+    long countByFilename(String filename);
+}
@@ -3,10 +3,55 @@ package com.example.inventory.repository;
 import com.example.inventory.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
-}
\ No newline at end of file
+    // Plain substring match on lower(name), as the idx_products_name_trgm GIN index is built on that
+    // expression. Used when trigram search is disabled; the pattern is lower-cased and escaped.
+    @Query(value = "SELECT p.* FROM products p WHERE lower(p.name) LIKE :pattern ORDER BY p.id",
+            countQuery = "SELECT count(*) FROM products p WHERE lower(p.name) LIKE :pattern",
+            nativeQuery = true)
+    Page<Product> findByNameLike(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // For changes that don't go through the entity (images), so the product's ETag still moves
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.version = p.version + 1 WHERE p.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    Slice<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query(value = "SELECT p.* FROM products p WHERE p.id > :id AND lower(p.name) LIKE :pattern ORDER BY p.id",
+            nativeQuery = true)
+    Slice<Product> findByIdGreaterThanAndNameLike(@Param("id") Long id, @Param("pattern") String pattern,
+                                                   Pageable pageable);
+
+    // Substring or trigram-similar matches (typo tolerant), prefix matches first, then by similarity.
+    // Both predicates are served by the idx_products_name_trgm GIN index.
+    @Query(value = """
+            SELECT p.* FROM products p
+            WHERE lower(p.name) LIKE :pattern OR lower(p.name) % :term
+            ORDER BY (lower(p.name) LIKE :prefix) DESC, similarity(lower(p.name), :term) DESC, p.id
+            """,
+            countQuery = """
+                    SELECT count(*) FROM products p
+                    WHERE lower(p.name) LIKE :pattern OR lower(p.name) % :term
+                    """,
+            nativeQuery = true)
+    Page<Product> searchByName(@Param("term") String term,
+                               @Param("pattern") String pattern,
+                               @Param("prefix") String prefix,
+                               Pageable pageable);
+}
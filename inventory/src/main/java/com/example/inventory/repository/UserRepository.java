@@ -2,11 +2,31 @@ package com.example.inventory.repository;
 
 import com.example.inventory.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("select u.username as username, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+    List<TokenVersionView> findBumpedTokenVersions();
+
+    // Only replaces the hash that was verified, so a password changed in the meantime is kept
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :upgraded WHERE u.id = :id AND u.password = :current")
+    int upgradePassword(@Param("id") Long id, @Param("current") String current, @Param("upgraded") String upgraded);
+
+    interface TokenVersionView {
+        String getUsername();
+
+        Long getTokenVersion();
+    }
 }
\ No newline at end of file
@@ -1,35 +1,69 @@
 package com.example.inventory.security;
 
+import com.example.inventory.profiling.RequestProfile;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-@RequiredArgsConstructor
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenVersionRegistry tokenVersions;
+    private final Timer parseTimer;
+    private final Timer lookupTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    // When enabled, authorities come from the signed roles claim and no user lookup is made
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   VerifiedTokenCache tokenCache,
+                                   TokenVersionRegistry tokenVersions,
+                                   MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.tokenVersions = tokenVersions;
+        // Only cache misses pay for parsing and the lookup, so the hit ratio explains most auth latency
+        this.parseTimer = Timer.builder("inventory.auth.token").tag("step", "parse").register(meterRegistry);
+        this.lookupTimer = Timer.builder("inventory.auth.token").tag("step", "lookup").register(meterRegistry);
+        this.cacheHits = Counter.builder("inventory.auth.token.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("inventory.auth.token.cache").tag("result", "miss").register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws java.io.IOException, jakarta.servlet.ServletException {
         String header = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-        if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
-            username = jwtUtil.extractUsername(token);
-        }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
+        if (header != null && header.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long start = System.nanoTime();
+            UserDetails userDetails = resolve(header.substring(7));
+            RequestProfile.auth(System.nanoTime() - start);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -38,4 +72,65 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails resolve(String token) {
+        VerifiedToken verified = tokenCache.get(token);
+        if (verified != null) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            verified = verify(token);
+            if (verified == null) {
+                return null;
+            }
+            tokenCache.put(token, verified);
+        }
+
+        UserDetails principal = verified.principal();
+        if (!tokenVersions.isCurrent(principal.getUsername(), verified.tokenVersion())) {
+            log.warn("Rejected revoked JWT token for user: {}", principal.getUsername());
+            return null;
+        }
+        return principal;
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims;
+        long start = System.nanoTime();
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Rejected JWT token: {}", e.getMessage());
+            return null;
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        UserDetails principal;
+        if (stateless) {
+            principal = User.withUsername(claims.getSubject())
+                    .password("")
+                    .authorities(jwtUtil.extractAuthorities(claims))
+                    .build();
+        } else {
+            UserDetails loaded;
+            long lookupStart = System.nanoTime();
+            try {
+                loaded = userDetailsService.loadUserByUsername(claims.getSubject());
+            } catch (UsernameNotFoundException e) {
+                log.warn("JWT token for unknown user: {}", claims.getSubject());
+                return null;
+            } finally {
+                lookupTimer.record(System.nanoTime() - lookupStart, TimeUnit.NANOSECONDS);
+            }
+            // Cache the principal without the password hash
+            principal = User.withUsername(loaded.getUsername())
+                    .password("")
+                    .authorities(loaded.getAuthorities())
+                    .build();
+        }
+
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        return new VerifiedToken(principal, jwtUtil.extractTokenVersion(claims), expiresAt);
+    }
+}
@@ -2,17 +2,24 @@ package com.example.inventory.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -29,9 +36,30 @@ public class JwtUtil {
     @Value("${jwt.clock-skew}")
     private Long clockSkew;
 
+    // The key and parser are immutable and thread-safe, so build them once instead of per call
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setAllowedClockSkewSeconds(clockSkew / 1000) // Convert milliseconds to seconds
+                .build();
+    }
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, 0L);
+    }
+
+    public String generateToken(UserDetails userDetails, long tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", userDetails.getAuthorities());
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities());
+        claims.put(VERSION_CLAIM, tokenVersion);
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -44,14 +72,19 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Verifies signature and expiry in a single parse; throws JwtException when either fails
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            final String username = parseToken(token).getSubject();
+            return username.equals(userDetails.getUsername());
         } catch (ExpiredJwtException e) {
             log.warn("JWT token has expired: {}", e.getMessage());
             return false;
@@ -70,25 +103,25 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                .setAllowedClockSkewSeconds(clockSkew / 1000) // Convert milliseconds to seconds
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public long extractTokenVersion(Claims claims) {
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return version == null ? 0L : version.longValue();
     }
 
-    private Boolean isTokenExpired(String token) {
-        try {
-            final Date expiration = extractExpiration(token);
-            return expiration.before(new Date(System.currentTimeMillis() - clockSkew));
-        } catch (ExpiredJwtException e) {
-            return true;
+    // Roles are serialized as GrantedAuthority objects ({"authority": "ROLE_X"}); plain strings are accepted too
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> entries)) {
+            return List.of();
         }
+        return entries.stream()
+                .map(entry -> entry instanceof Map<?, ?> map ? map.get("authority") : entry)
+                .filter(String.class::isInstance)
+                .<GrantedAuthority>map(authority -> new SimpleGrantedAuthority((String) authority))
+                .toList();
     }
-}
\ No newline at end of file
+}
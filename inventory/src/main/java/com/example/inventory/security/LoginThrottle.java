@@ -0,0 +1,98 @@
+package com.example.inventory.security;
+
+import com.example.inventory.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Failed login counters per username and per client address. Each key hashes to one slot of a
+// fixed array holding the window start (upper 32 bits, epoch seconds) and the failure count, so
+// memory stays constant however many usernames an attacker sprays. Colliding keys share a
+// counter, which can only throttle early, never let extra attempts through.
+@Component
+public class LoginThrottle {
+    private final Window usernames;
+    private final Window addresses;
+
+    public LoginThrottle(@Value("${auth.throttle.slots:65536}") int slots,
+                         @Value("${auth.throttle.username.max-failures:5}") int usernameMaxFailures,
+                         @Value("${auth.throttle.username.window:300}") long usernameWindowSeconds,
+                         @Value("${auth.throttle.address.max-failures:50}") int addressMaxFailures,
+                         @Value("${auth.throttle.address.window:60}") long addressWindowSeconds) {
+        this.usernames = new Window(slots, usernameMaxFailures, usernameWindowSeconds);
+        this.addresses = new Window(slots, addressMaxFailures, addressWindowSeconds);
+    }
+
+    public void check(String username, String address) {
+        check(username, address, nowSeconds());
+    }
+
+    public void recordFailure(String username, String address) {
+        recordFailure(username, address, nowSeconds());
+    }
+
+    // Only the username is cleared; a client address guessing across accounts keeps its count
+    public void recordSuccess(String username) {
+        usernames.clear(username);
+    }
+
+    void check(String username, String address, long now) {
+        long retryAfter = Math.max(usernames.retryAfter(username, now), addresses.retryAfter(address, now));
+        if (retryAfter > 0) {
+            throw new TooManyRequestsException("Too many failed login attempts, retry later", retryAfter);
+        }
+    }
+
+    void recordFailure(String username, String address, long now) {
+        usernames.increment(username, now);
+        addresses.increment(address, now);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static final class Window {
+        private final AtomicLongArray slots;
+        private final int mask;
+        private final int maxFailures;
+        private final long windowSeconds;
+
+        Window(int slots, int maxFailures, long windowSeconds) {
+            this.slots = new AtomicLongArray(Integer.highestOneBit(Math.max(slots, 2) - 1) << 1);
+            this.mask = this.slots.length() - 1;
+            this.maxFailures = maxFailures;
+            this.windowSeconds = windowSeconds;
+        }
+
+        long retryAfter(String key, long now) {
+            long slot = slots.get(index(key));
+            long start = slot >>> 32;
+            if (now - start >= windowSeconds || (int) slot < maxFailures) {
+                return 0;
+            }
+            return start + windowSeconds - now;
+        }
+
+        void increment(String key, long now) {
+            slots.getAndUpdate(index(key), slot -> {
+                long start = slot >>> 32;
+                if (now - start >= windowSeconds) {
+                    return now << 32 | 1;
+                }
+                int count = (int) slot;
+                return count == Integer.MAX_VALUE ? slot : slot + 1;
+            });
+        }
+
+        void clear(String key) {
+            slots.set(index(key), 0);
+        }
+
+        private int index(String key) {
+            int h = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+            return (h ^ h >>> 16) & mask;
+        }
+    }
+}
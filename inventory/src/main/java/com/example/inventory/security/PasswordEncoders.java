@@ -0,0 +1,42 @@
+package com.example.inventory.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+
+// Stored hashes carry their scheme as a {id} prefix, so the scheme and cost used for new hashes
+// can change without invalidating existing ones. Hashes written before the prefix existed are
+// plain BCrypt and are still verified as such.
+public final class PasswordEncoders {
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private PasswordEncoders() {
+    }
+
+    public static PasswordEncoder delegating(String algorithm, int bcryptStrength, int pbkdf2Iterations) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt(bcryptStrength),
+                PBKDF2, pbkdf2(pbkdf2Iterations));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+        return encoder;
+    }
+
+    // BCrypt also reports hashes below the configured strength as needing an upgrade
+    public static PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // PBKDF2 does not flag lower iteration counts for upgrade; only a scheme change rehashes them
+    public static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+}
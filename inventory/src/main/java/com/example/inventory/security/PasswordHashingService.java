@@ -0,0 +1,112 @@
+package com.example.inventory.security;
+
+import com.example.inventory.exception.ServiceBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs password encoding and verification on the bounded hashing pool so request threads are
+// released while BCrypt works. A full queue fails fast with ServiceBusyException (503). New
+// hashes are stored from a separate pool, so a slow database doesn't hold hashing threads.
+@Slf4j
+@Component
+public class PasswordHashingService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final TaskExecutor storeExecutor;
+    // Moving average of one verification, used to answer unknown usernames in the same time
+    private final AtomicLong averageMatchNanos;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                                  @Qualifier("passwordStoreExecutor") TaskExecutor storeExecutor) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.storeExecutor = storeExecutor;
+        long start = System.nanoTime();
+        passwordEncoder.encode(UUID.randomUUID().toString());
+        this.averageMatchNanos = new AtomicLong(System.nanoTime() - start);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Encodes on the hashing pool, then hands the hash to `store` on the store pool
+    public CompletableFuture<Void> encodeAndStore(String rawPassword, Consumer<String> store) {
+        return encode(rawPassword).thenAcceptAsync(store, storeExecutor);
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            boolean matched = passwordEncoder.matches(rawPassword, encodedPassword);
+            long elapsed = System.nanoTime() - start;
+            averageMatchNanos.getAndUpdate(average -> average + (elapsed - average) / 8);
+            return matched;
+        });
+    }
+
+    // True when the hash was written with another scheme or a lower cost than now configured
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Re-encodes a just-verified password with the current scheme in the background. Best effort:
+    // skipped when the pool is busy, the next successful login tries again.
+    public void upgrade(String rawPassword, Consumer<String> store) {
+        try {
+            executor.execute(() -> {
+                String encoded = passwordEncoder.encode(rawPassword);
+                storeExecutor.execute(() -> {
+                    try {
+                        store.accept(encoded);
+                    } catch (RuntimeException e) {
+                        log.warn("Password hash upgrade failed: {}", e.getMessage());
+                    }
+                });
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("Password hashing pool busy, skipping hash upgrade");
+        }
+    }
+
+    // Completes with false after the time a real verification would take right now, without
+    // taking a hashing slot, so floods of unknown usernames cost nothing but still look like a
+    // wrong password. That is the wait behind the queued hashes (run maxPoolSize at a time) plus
+    // one verification. Sheds load like a real verification would when the pool is saturated.
+    public CompletableFuture<Boolean> rejectAfterTypicalDelay() {
+        BlockingQueue<Runnable> queue = executor.getThreadPoolExecutor().getQueue();
+        if (queue.remainingCapacity() == 0) {
+            throw busy();
+        }
+        long average = averageMatchNanos.get();
+        long delay = average + average * queue.size() / executor.getMaxPoolSize();
+        return CompletableFuture.supplyAsync(() -> false,
+                CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (TaskRejectedException e) {
+            throw busy();
+        }
+    }
+
+    private static ServiceBusyException busy() {
+        return new ServiceBusyException("Authentication is busy, retry shortly");
+    }
+}
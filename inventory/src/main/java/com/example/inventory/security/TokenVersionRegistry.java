@@ -0,0 +1,39 @@
+package com.example.inventory.security;
+
+import com.example.inventory.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory copy of users.token_version, reloaded in bulk so the request path never queries it.
+// Only users whose version was ever bumped are held; everyone else is implicitly at version 0.
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TokenVersionRegistry {
+    private final UserRepository userRepository;
+    private volatile Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${jwt.token-version.refresh-interval:30000}")
+    public void refresh() {
+        Map<String, Long> loaded = new ConcurrentHashMap<>();
+        userRepository.findBumpedTokenVersions()
+                .forEach(v -> loaded.put(v.getUsername(), v.getTokenVersion()));
+        // Keep local bumps that the reload may have raced with
+        versions.forEach((username, version) -> loaded.merge(username, version, Math::max));
+        versions = loaded;
+        log.debug("Token versions refreshed: {} users with revoked tokens", loaded.size());
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(username, 0L);
+    }
+
+    public void update(String username, long version) {
+        versions.merge(username, version, Math::max);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Usernames a login lookup found no user for, so repeated attempts against them (credential
+// stuffing lists) skip the database. Registration evicts the name on this instance; other
+// instances see the new user once the entry expires.
+@Component
+public class UnknownUsernameCache {
+    private final Cache<String, Boolean> cache;
+
+    public UnknownUsernameCache(@Value("${auth.unknown-users.max-size:100000}") long maxSize,
+                                @Value("${auth.unknown-users.ttl:60000}") long ttlMillis) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    public boolean contains(String username) {
+        return cache.getIfPresent(username) != null;
+    }
+
+    public void add(String username) {
+        cache.put(username, Boolean.TRUE);
+    }
+
+    public void remove(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.inventory.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+public record VerifiedToken(UserDetails principal, long tokenVersion, long expiresAtMillis) {
+}
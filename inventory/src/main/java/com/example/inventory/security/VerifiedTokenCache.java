@@ -0,0 +1,52 @@
+package com.example.inventory.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Verified bearer tokens mapped to the principal built for them. Entries expire at the
+// token's own exp claim, capped at max-ttl so role changes are picked up within that window.
+@Component
+public class VerifiedTokenCache {
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.token-cache.max-ttl:300000}") long maxTtlMillis) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken entry, long currentTime) {
+                        long untilExpiry = entry.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(untilExpiry, maxTtlMillis)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public VerifiedToken get(String token) {
+        return cache.getIfPresent(token);
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        cache.put(token, verified);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.ProductChangesResponse;
+
+public interface ProductChangeService {
+    ProductChangesResponse getChanges(String since, int limit);
+
+    void recordDeletion(Long productId);
+}
@@ -0,0 +1,9 @@
+package com.example.inventory.service;
+
+import java.io.OutputStream;
+
+public interface ProductExportService {
+    void exportNdjson(OutputStream out);
+
+    void exportCsv(OutputStream out);
+}
@@ -1,6 +1,8 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.ImageBatchUploadResponse;
 import com.example.inventory.dto.ImageResponse;
+import com.example.inventory.utils.StoredFile;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -9,9 +11,17 @@ import java.util.List;
 public interface ProductImageService {
     ImageResponse uploadImage(Long productId, MultipartFile file);
 
+    ImageBatchUploadResponse uploadImages(Long productId, List<MultipartFile> files);
+
     List<ImageResponse> listImages(Long productId);
 
     Resource loadImage(String filename);
 
+    StoredFile statImage(String filename);
+
+    StoredFile statImage(String filename, Integer width);
+
+    String imageName(String filename, Integer width);
+
     void deleteImage(Long imageId);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.ProductImportResponse;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResponse importCsv(InputStream body);
+
+    ProductImportResponse importNdjson(InputStream body);
+}
@@ -2,6 +2,7 @@ package com.example.inventory.service;
 
 import com.example.inventory.dto.ProductRequest;
 import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.dto.ProductSliceResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,12 +13,17 @@ import org.springframework.validation.annotation.Validated;
 public interface ProductService {
     ProductResponse createProduct(@Valid ProductRequest request);
 
-    ProductResponse updateProduct(Long id, @Valid ProductRequest request);
+    // expectedVersion comes from If-Match; null skips the check
+    ProductResponse updateProduct(Long id, @Valid ProductRequest request, Long expectedVersion);
 
     @Transactional
-    void deleteProduct(Long id);
+    void deleteProduct(Long id, Long expectedVersion);
 
     ProductResponse getProductById(Long id);
 
+    Long getProductVersion(Long id);
+
     Page<ProductResponse> getAllProducts(Pageable pageable, String nameFilter);
+
+    ProductSliceResponse getProductsAfter(String cursor, int size, String nameFilter);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.StockLine;
+import com.example.inventory.dto.StockResponse;
+
+import java.util.List;
+
+public interface StockService {
+    StockResponse reserve(Long productId, int quantity);
+
+    StockResponse release(Long productId, int quantity);
+
+    StockResponse adjust(Long productId, int delta);
+
+    List<StockResponse> reserveAll(List<StockLine> lines);
+
+    List<StockResponse> releaseAll(List<StockLine> lines);
+
+    void markHot(Long productId);
+
+    void unmarkHot(Long productId);
+}
@@ -4,10 +4,12 @@ import com.example.inventory.dto.RoleAssignmentDto;
 import com.example.inventory.dto.UserLoginDto;
 import com.example.inventory.dto.UserRegistrationDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserService {
-    void register(UserRegistrationDto dto);
+    CompletableFuture<Void> register(UserRegistrationDto dto);
 
-    String login(UserLoginDto dto);
+    CompletableFuture<String> login(UserLoginDto dto, String clientAddress);
 
     void assignRole(RoleAssignmentDto dto);
 }
\ No newline at end of file
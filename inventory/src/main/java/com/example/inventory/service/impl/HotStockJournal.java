@@ -0,0 +1,127 @@
+package com.example.inventory.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Write-ahead journal for hot-stock reservations: fixed 16-byte (productId, delta) records,
+// one file per stripe index and a new generation per flush. Stripe i of every hot product
+// appends to the same channel; FileChannel serializes the writes, so records never interleave.
+@Slf4j
+@Component
+public class HotStockJournal {
+    private static final int RECORD_BYTES = 16;
+    private static final Pattern FILE_NAME = Pattern.compile("hot-stock-(\\d+)-(\\d+)\\.journal");
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel[] channels = new FileChannel[0];
+    private long generation;
+
+    public HotStockJournal(@Value("${stock.hot.journal-dir:journal}") String directory,
+                           @Value("${stock.hot.journal-fsync:false}") boolean fsync) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.fsync = fsync;
+    }
+
+    // Callers must make sure no append is in progress (all stripes locked)
+    public void open(long generation, int stripes) throws IOException {
+        Files.createDirectories(directory);
+        close();
+        FileChannel[] opened = new FileChannel[stripes];
+        for (int i = 0; i < stripes; i++) {
+            opened[i] = FileChannel.open(directory.resolve(fileName(generation, i)),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        this.channels = opened;
+        this.generation = generation;
+    }
+
+    // Without fsync the record is in the OS page cache, which survives a JVM crash but not a power loss
+    public void append(int stripe, long productId, long delta) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).putLong(productId).putLong(delta).flip();
+        FileChannel channel = channels[stripe];
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // Starts the next generation and returns its number; callers must hold all stripe locks
+    public long rotate() throws IOException {
+        open(generation + 1, channels.length);
+        return generation;
+    }
+
+    // Net delta per product over every generation >= fromGeneration
+    public Map<Long, Long> readFrom(long fromGeneration) throws IOException {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Path file : files()) {
+            if (generationOf(file) < fromGeneration) {
+                continue;
+            }
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+            // A torn record at the end (crash mid-write) was never acknowledged, so it is skipped
+            while (content.remaining() >= RECORD_BYTES) {
+                deltas.merge(content.getLong(), content.getLong(), Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    public long maxGeneration() throws IOException {
+        return files().stream().mapToLong(HotStockJournal::generationOf).max().orElse(-1);
+    }
+
+    public void deleteBefore(long generation) {
+        try {
+            for (Path file : files()) {
+                if (generationOf(file) < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete flushed hot-stock journal files: {}", e.getMessage());
+        }
+    }
+
+    private void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches()).toList();
+        }
+    }
+
+    private static long generationOf(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static String fileName(long generation, int stripe) {
+        return "hot-stock-" + generation + "-" + stripe + ".journal";
+    }
+}
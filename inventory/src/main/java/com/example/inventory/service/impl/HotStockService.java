@@ -0,0 +1,411 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.StockLine;
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ResourceNotFoundException;
+import com.example.inventory.exception.ServiceBusyException;
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory reservations for products flagged as hot (flash sales). The product's quantity is
+// split into per-stripe allotments, so concurrent reservations lock different stripes instead
+// of the same Postgres row. Each change is journaled before it is applied, and a scheduled
+// flusher writes the net deltas to products.quantity in one batch per interval.
+//
+// Allotments are taken from the database quantity when a product is activated, so a product
+// should be hot on one node only, and other writers shouldn't change its quantity meanwhile.
+@Slf4j
+@Component
+public class HotStockService {
+    private static final String APPLY_DELTA = "UPDATE products SET quantity = quantity + ?, version = version + 1 WHERE id = ?";
+    private static final String READ_CHECKPOINT = "SELECT generation FROM hot_stock_checkpoint WHERE node = ?";
+    private static final String WRITE_CHECKPOINT = """
+            INSERT INTO hot_stock_checkpoint (node, generation) VALUES (?, ?)
+            ON CONFLICT (node) DO UPDATE SET generation = EXCLUDED.generation
+            """;
+
+    private final HotStockJournal journal;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ProductPageCache pageCache;
+    private final boolean enabled;
+    private final int stripeCount;
+    private final String node;
+    private final List<Long> initialProducts;
+
+    private final Map<Long, HotStock> hot = new ConcurrentHashMap<>();
+    // Deltas taken from stripes but not yet committed to the database; guarded by flushLock
+    private final Map<Long, Long> unflushed = new HashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public HotStockService(HotStockJournal journal,
+                           ProductRepository productRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           CacheManager cacheManager,
+                           ProductPageCache pageCache,
+                           @Value("${stock.hot.enabled:false}") boolean enabled,
+                           @Value("${stock.hot.stripes:16}") int stripeCount,
+                           @Value("${stock.hot.node-id:default}") String node,
+                           @Value("${stock.hot.product-ids:}") List<Long> initialProducts) {
+        this.journal = journal;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.pageCache = pageCache;
+        this.enabled = enabled;
+        this.stripeCount = stripeCount;
+        this.node = node;
+        this.initialProducts = initialProducts;
+    }
+
+    // Replays reservations journaled after the last checkpoint, i.e. not yet flushed before a crash
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<Long> checkpoints = jdbcTemplate.queryForList(READ_CHECKPOINT, Long.class, node);
+        long checkpoint = checkpoints.isEmpty() ? 0 : checkpoints.get(0);
+        Map<Long, Long> deltas = journal.readFrom(checkpoint);
+        long next = Math.max(checkpoint, journal.maxGeneration() + 1);
+
+        transactionTemplate.executeWithoutResult(status -> apply(deltas, next));
+        if (!deltas.isEmpty()) {
+            log.warn("Replayed hot-stock journal: {} products corrected", deltas.size());
+        }
+        journal.deleteBefore(next);
+        journal.open(next, stripeCount);
+
+        initialProducts.forEach(productId -> {
+            try {
+                activate(productId);
+            } catch (ResourceNotFoundException e) {
+                log.warn("Cannot mark product {} as hot: not found", productId);
+            }
+        });
+    }
+
+    // Under flushLock, so a new product can't journal into a generation a running flush is
+    // rotating away, and is never seeded while an unflushed delta for it is still pending
+    public void activate(Long productId) {
+        if (!enabled) {
+            throw new BadRequestException("Hot stock mode is disabled");
+        }
+        flushLock.lock();
+        try {
+            if (unflushed.containsKey(productId)) {
+                flush();
+                if (unflushed.containsKey(productId)) {
+                    throw new ServiceBusyException("Hot-stock flush pending for product " + productId + ", retry shortly");
+                }
+            }
+            hot.computeIfAbsent(productId, id -> {
+                Product product = productRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+                log.info("Product {} is now hot with {} units", id, product.getQuantity());
+                return new HotStock(id, product.getQuantity() == null ? 0 : product.getQuantity(), stripeCount);
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void deactivate(Long productId) {
+        flushLock.lock();
+        try {
+            HotStock stock = hot.remove(productId);
+            if (stock == null) {
+                return;
+            }
+            stock.lockAll();
+            try {
+                stock.active = false;
+                drain(stock);
+            } finally {
+                stock.unlockAll();
+            }
+            flush();
+            if (unflushed.containsKey(productId)) {
+                // The flush failed: keep serving from the stripes rather than from a stale row
+                stock.lockAll();
+                try {
+                    stock.active = true;
+                } finally {
+                    stock.unlockAll();
+                }
+                hot.put(productId, stock);
+                throw new ServiceBusyException("Could not flush hot stock for product " + productId + ", retry shortly");
+            }
+            log.info("Product {} is no longer hot", productId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Returns the remaining quantity, or null when the product isn't hot (use the database path)
+    public Long reserve(Long productId, int quantity) {
+        HotStock stock = hot.get(productId);
+        if (stock == null) {
+            return null;
+        }
+        int start = stripeFor(stock);
+        for (int i = 0; i < stock.stripes.length; i++) {
+            int index = (start + i) % stock.stripes.length;
+            Stripe stripe = stock.stripes[index];
+            stripe.lock.lock();
+            try {
+                if (!stock.active) {
+                    return null;
+                }
+                if (stripe.available >= quantity) {
+                    change(stock, index, -quantity);
+                    return stock.remaining();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        // No single stripe has enough: take from several under all stripe locks
+        stock.lockAll();
+        try {
+            if (!stock.active) {
+                return null;
+            }
+            if (stock.remaining() < quantity) {
+                throw new InsufficientStockException("Insufficient stock for product " + productId);
+            }
+            long needed = quantity;
+            for (int index = 0; index < stock.stripes.length && needed > 0; index++) {
+                long taken = Math.min(needed, stock.stripes[index].available);
+                if (taken > 0) {
+                    change(stock, index, -taken);
+                    needed -= taken;
+                }
+            }
+            return stock.remaining();
+        } finally {
+            stock.unlockAll();
+        }
+    }
+
+    public Long release(Long productId, int quantity) {
+        HotStock stock = hot.get(productId);
+        if (stock == null) {
+            return null;
+        }
+        int index = stripeFor(stock);
+        Stripe stripe = stock.stripes[index];
+        stripe.lock.lock();
+        try {
+            if (!stock.active) {
+                return null;
+            }
+            // Only stripe lock holders can be mid-change, each by at most StockLine.MAX_QUANTITY,
+            // so with this much headroom the total can't pass the int limit of products.quantity
+            if (stock.remaining() + (long) StockLine.MAX_QUANTITY * stock.stripes.length <= Integer.MAX_VALUE) {
+                change(stock, index, quantity);
+                return stock.remaining();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // Near the limit: check the exact total under all stripe locks
+        stock.lockAll();
+        try {
+            if (!stock.active) {
+                return null;
+            }
+            if (stock.remaining() + quantity > Integer.MAX_VALUE) {
+                throw new BadRequestException("Change would exceed the maximum stock for product " + productId);
+            }
+            change(stock, index, quantity);
+            return stock.remaining();
+        } finally {
+            stock.unlockAll();
+        }
+    }
+
+    public Long adjust(Long productId, int delta) {
+        return delta >= 0 ? release(productId, delta) : reserve(productId, -delta);
+    }
+
+    // Hands back units a rolled-back basket took from hot stock. If the product was deactivated in
+    // the meantime its reservation went to the database with the flush, so the units follow it there.
+    public void giveBack(Long productId, int quantity) {
+        if (release(productId, quantity) != null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (release(productId, quantity) != null) {
+                return;
+            }
+            try {
+                journal.append(0, productId, quantity);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write hot-stock journal", e);
+            }
+            unflushed.merge(productId, (long) quantity, Long::sum);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.hot.flush-interval:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<HotStock> stocks = new ArrayList<>(hot.values());
+            stocks.sort(Comparator.comparingLong(stock -> stock.productId));
+            long generation;
+            stocks.forEach(HotStock::lockAll);
+            try {
+                stocks.forEach(this::drain);
+                if (unflushed.values().stream().allMatch(delta -> delta == 0)) {
+                    unflushed.clear();
+                    return;
+                }
+                // Records written from here on belong to the next generation
+                generation = journal.rotate();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rotate hot-stock journal", e);
+            } finally {
+                stocks.forEach(HotStock::unlockAll);
+            }
+
+            Map<Long, Long> deltas = new HashMap<>(unflushed);
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(deltas, generation));
+            } catch (RuntimeException e) {
+                // Older journal generations are kept, so the deltas are retried or replayed
+                log.error("Hot-stock flush failed, will retry: {}", e.getMessage());
+                return;
+            }
+            unflushed.clear();
+            journal.deleteBefore(generation);
+
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            if (products != null) {
+                deltas.keySet().forEach(products::evict);
+            }
+            pageCache.invalidate();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void apply(Map<Long, Long> deltas, long checkpoint) {
+        List<Object[]> updates = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA, updates);
+        }
+        jdbcTemplate.update(WRITE_CHECKPOINT, node, checkpoint);
+    }
+
+    // Caller holds the stripe lock. The journal record goes first, so an acknowledged change is never lost.
+    private void change(HotStock stock, int index, long delta) {
+        try {
+            journal.append(index, stock.productId, delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write hot-stock journal", e);
+        }
+        Stripe stripe = stock.stripes[index];
+        stripe.available += delta;
+        stripe.pending += delta;
+    }
+
+    // Caller holds flushLock and all stripe locks of the stock
+    private void drain(HotStock stock) {
+        long pending = 0;
+        for (Stripe stripe : stock.stripes) {
+            pending += stripe.pending;
+            stripe.pending = 0;
+        }
+        if (pending != 0) {
+            unflushed.merge(stock.productId, pending, Long::sum);
+        }
+    }
+
+    private static int stripeFor(HotStock stock) {
+        return (int) (Thread.currentThread().threadId() % stock.stripes.length);
+    }
+
+    private static final class HotStock {
+        private final long productId;
+        private final Stripe[] stripes;
+        private volatile boolean active = true;
+
+        HotStock(long productId, long quantity, int stripeCount) {
+            this.productId = productId;
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                // Spread the quantity evenly; the first stripes take the remainder
+                stripes[i] = new Stripe(quantity / stripeCount + (i < quantity % stripeCount ? 1 : 0));
+            }
+        }
+
+        long remaining() {
+            long total = 0;
+            for (Stripe stripe : stripes) {
+                total += stripe.available;
+            }
+            return total;
+        }
+
+        void lockAll() {
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+            }
+        }
+
+        void unlockAll() {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].lock.unlock();
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long available;
+        private long pending;
+
+        Stripe(long available) {
+            this.available = available;
+        }
+    }
+}
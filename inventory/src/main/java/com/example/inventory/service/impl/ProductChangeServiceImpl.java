@@ -0,0 +1,127 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ProductChange;
+import com.example.inventory.dto.ProductChangesResponse;
+import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.exception.CursorExpiredException;
+import com.example.inventory.mapper.ProductMapper;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.service.ProductChangeService;
+import com.example.inventory.utils.ChangeCursor;
+import com.example.inventory.utils.CursorCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Incremental sync over the (change_xid, id) keyset: a poll costs one index range scan per
+// table plus the changed rows, independent of the catalog size.
+//
+// change_xid is the id of the transaction that last wrote the row. The feed stops at the xmin of
+// its snapshot: every transaction below it has committed or rolled back, so no row can later show
+// up behind a cursor. A long-running writer (or any long transaction on the server) delays the
+// feed until it ends instead of having its rows skipped.
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ProductChangeServiceImpl implements ProductChangeService {
+    private static final String CHANGES_QUERY = """
+            (SELECT p.id, p.change_xid, p.updated_at AS changed_at, FALSE AS deleted FROM products p
+             WHERE (p.change_xid, p.id) > (?, ?)
+               AND p.change_xid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+             ORDER BY p.change_xid, p.id LIMIT ?)
+            UNION ALL
+            (SELECT t.product_id, t.change_xid, t.deleted_at, TRUE FROM product_tombstones t
+             WHERE (t.change_xid, t.product_id) > (?, ?)
+               AND t.change_xid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+             ORDER BY t.change_xid, t.product_id LIMIT ?)
+            ORDER BY change_xid, id
+            LIMIT ?
+            """;
+    private static final String RECORD_DELETION = """
+            INSERT INTO product_tombstones (product_id) VALUES (?)
+            ON CONFLICT (product_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at
+            """;
+    private static final String PURGE_TOMBSTONES = "DELETE FROM product_tombstones WHERE deleted_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Duration tombstoneRetention;
+
+    public ProductChangeServiceImpl(JdbcTemplate jdbcTemplate,
+                                    ProductRepository productRepository,
+                                    ProductMapper productMapper,
+                                    @Value("${product.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    @Override
+    public ProductChangesResponse getChanges(String since, int limit) {
+        ChangeCursor cursor = CursorCodec.decodeChange(since);
+        // Deletes older than the retention are gone, so the consumer has to resync from scratch
+        if (since != null && !since.isBlank()
+                && cursor.changedAt().isBefore(LocalDateTime.now().minus(tombstoneRetention))) {
+            throw new CursorExpiredException("Cursor is older than the change feed retention, resync required");
+        }
+
+        // One extra row tells whether there is more
+        List<Row> rows = jdbcTemplate.query(CHANGES_QUERY,
+                (rs, rowNum) -> new Row(rs.getLong("id"), rs.getLong("change_xid"),
+                        rs.getObject("changed_at", LocalDateTime.class), rs.getBoolean("deleted")),
+                cursor.xid(), cursor.id(), limit + 1,
+                cursor.xid(), cursor.id(), limit + 1,
+                limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<Long> upserted = rows.stream().filter(row -> !row.deleted()).map(Row::id).toList();
+        Map<Long, ProductResponse> products = productMapper.toResponseList(productRepository.findAllById(upserted))
+                .stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+
+        List<ProductChange> changes = rows.stream()
+                .map(row -> row.deleted() ?
+                        new ProductChange(row.id(), ProductChange.Type.DELETE, row.changedAt(), null) :
+                        new ProductChange(row.id(), ProductChange.Type.UPSERT, row.changedAt(), products.get(row.id())))
+                // A product deleted between the two queries shows up as its tombstone on the next poll
+                .filter(change -> change.getType() == ProductChange.Type.DELETE || change.getProduct() != null)
+                .toList();
+
+        Row last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        ChangeCursor next = last == null ? cursor : new ChangeCursor(last.xid(), last.id(), last.changedAt());
+        return new ProductChangesResponse(changes, hasMore, CursorCodec.encodeChange(next));
+    }
+
+    @Override
+    @Transactional
+    public void recordDeletion(Long productId) {
+        jdbcTemplate.update(RECORD_DELETION, productId);
+    }
+
+    @Scheduled(cron = "${product.changes.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = jdbcTemplate.update(PURGE_TOMBSTONES, LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} product tombstones", purged);
+        }
+    }
+
+    private record Row(long id, long xid, LocalDateTime changedAt, boolean deleted) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ProductEvent;
+import com.example.inventory.dto.ProductsImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fans product events out to SSE subscribers. Publishing never blocks on a client: events go
+// into a per-subscriber buffer keyed by product, so rapid updates to one product collapse into
+// one event. A subscriber whose buffer overflows gets a single "resync" event instead of the
+// dropped ones. Buffers are drained on a small pool; idle subscribers hold no thread.
+@Slf4j
+@Component
+public class ProductEventStream {
+    static final String RESYNC = "resync";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final TaskExecutor executor;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    public ProductEventStream(@Qualifier("productEventExecutor") TaskExecutor executor,
+                              @Value("${product.events.buffer-size:256}") int bufferSize,
+                              @Value("${product.events.timeout:1800000}") long timeoutMillis) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    Set<Subscriber> subscribers() {
+        return subscribers;
+    }
+
+    // fallbackExecution: the hot-stock path and other non-transactional callers publish directly
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ProductEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(event, bufferSize)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // A bulk import changes too many products to send individually
+    @TransactionalEventListener(fallbackExecution = true)
+    public void resync(ProductsImportedEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestResync();
+            schedule(subscriber);
+        }
+    }
+
+    // Keeps proxies from closing idle streams and finds dead connections
+    @Scheduled(fixedDelayString = "${product.events.heartbeat-interval:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Batch batch = subscriber.take();
+            if (batch.isEmpty()) {
+                subscriber.scheduled.set(false);
+                // Something may have arrived after take() but before the flag was cleared
+                if (!subscriber.hasPending() || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                send(subscriber.emitter, batch);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks may not fire for a broken pipe
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, Batch batch) throws IOException {
+        if (batch.resync()) {
+            emitter.send(SseEmitter.event().name(RESYNC).data(""));
+        }
+        for (ProductEvent event : batch.events()) {
+            emitter.send(SseEmitter.event().name(event.getType().name()).data(event, MediaType.APPLICATION_JSON));
+        }
+        if (batch.heartbeat()) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Map<Long, ProductEvent> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean heartbeat;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Returns false when the event was dropped because a resync is already due
+        synchronized boolean offer(ProductEvent event, int bufferSize) {
+            if (overflowed) {
+                return false;
+            }
+            ProductEvent previous = pending.get(event.getProductId());
+            if (previous == null && pending.size() >= bufferSize) {
+                pending.clear();
+                overflowed = true;
+                return true;
+            }
+            pending.put(event.getProductId(), ProductEvent.coalesce(previous, event));
+            return true;
+        }
+
+        // Pending events are superseded by the resync
+        synchronized void requestResync() {
+            pending.clear();
+            overflowed = true;
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeat = true;
+        }
+
+        synchronized boolean hasPending() {
+            return overflowed || heartbeat || !pending.isEmpty();
+        }
+
+        synchronized int pendingCount() {
+            return pending.size();
+        }
+
+        synchronized Batch take() {
+            Batch batch = new Batch(overflowed, heartbeat, new ArrayList<>(pending.values()));
+            pending.clear();
+            overflowed = false;
+            heartbeat = false;
+            return batch;
+        }
+    }
+
+    record Batch(boolean resync, boolean heartbeat, List<ProductEvent> events) {
+        boolean isEmpty() {
+            return !resync && !heartbeat && events.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ProductExportRow;
+import com.example.inventory.service.ProductExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+
+// Streams the whole catalog with one forward-only query. The Postgres driver only uses a
+// server-side cursor (honouring the fetch size) inside a transaction, hence @Transactional.
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final String EXPORT_QUERY = """
+            SELECT p.id, p.name, p.description, p.price, p.quantity, i.url
+            FROM products p
+            LEFT JOIN product_images i ON i.product_id = p.id
+            ORDER BY p.id, i.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+
+    public ProductExportServiceImpl(DataSource dataSource,
+                                    ObjectMapper objectMapper,
+                                    @Value("${product.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.ndjsonWriter = objectMapper.writerFor(ProductExportRow.class).withRootValueSeparator("\n");
+        this.csvWriter = CSV_MAPPER.writerFor(ProductExportRow.class)
+                .with(CSV_MAPPER.schemaFor(ProductExportRow.class).withHeader().withArrayElementSeparator("|"));
+    }
+
+    @Override
+    public void exportNdjson(OutputStream out) {
+        export(ndjsonWriter, out);
+    }
+
+    @Override
+    public void exportCsv(OutputStream out) {
+        export(csvWriter, out);
+    }
+
+    private void export(ObjectWriter writer, OutputStream out) {
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            // Rows arrive ordered by product, one per image; fold them into one record per product
+            ProductExportRow[] current = new ProductExportRow[1];
+            long[] count = new long[1];
+            jdbcTemplate.query(EXPORT_QUERY, rs -> {
+                long id = rs.getLong("id");
+                if (current[0] == null || current[0].getId() != id) {
+                    write(sequence, current[0]);
+                    current[0] = new ProductExportRow(id, rs.getString("name"), rs.getString("description"),
+                            rs.getBigDecimal("price"), (Integer) rs.getObject("quantity"), new ArrayList<>());
+                    count[0]++;
+                }
+                String url = rs.getString("url");
+                if (url != null) {
+                    current[0].getImageUrls().add(url);
+                }
+            });
+            write(sequence, current[0]);
+            log.info("Product export finished: {} products", count[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write product export", e);
+        }
+    }
+
+    private static void write(SequenceWriter sequence, ProductExportRow row) {
+        if (row == null) {
+            return;
+        }
+        try {
+            sequence.write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write product export", e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ImageBatchUploadResponse;
 import com.example.inventory.dto.ImageResponse;
+import com.example.inventory.dto.ImageUploadError;
+import com.example.inventory.dto.ProductEvent;
 import com.example.inventory.exception.ResourceNotFoundException;
 import com.example.inventory.mapper.ImageMapper;
 import com.example.inventory.model.Product;
@@ -9,28 +13,72 @@ import com.example.inventory.repository.ProductImageRepository;
 import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.service.ProductImageService;
 import com.example.inventory.utils.FileStorageService;
-import lombok.RequiredArgsConstructor;
+import com.example.inventory.utils.ImageCache;
+import com.example.inventory.utils.ImageVariantService;
+import com.example.inventory.utils.StagedFile;
+import com.example.inventory.utils.StoredFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
+@Slf4j
 @Service
 public class ProductImageServiceImpl implements ProductImageService {
     private final ProductRepository productRepository;
     private final ProductImageRepository imageRepository;
     private final FileStorageService fileStorage;
+    private final ImageVariantService variantService;
+    private final ImageCache imageCache;
     private final ImageMapper imageMapper;
+    private final CacheManager cacheManager;
+    private final ProductPageCache pageCache;
+    private final TaskExecutor imageUploadExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImageServiceImpl(ProductRepository productRepository,
+                                   ProductImageRepository imageRepository,
+                                   FileStorageService fileStorage,
+                                   ImageVariantService variantService,
+                                   ImageCache imageCache,
+                                   ImageMapper imageMapper,
+                                   CacheManager cacheManager,
+                                   ProductPageCache pageCache,
+                                   @Qualifier("imageUploadExecutor") TaskExecutor imageUploadExecutor,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.imageRepository = imageRepository;
+        this.fileStorage = fileStorage;
+        this.variantService = variantService;
+        this.imageCache = imageCache;
+        this.imageMapper = imageMapper;
+        this.cacheManager = cacheManager;
+        this.pageCache = pageCache;
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.eventPublisher = eventPublisher;
+    }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
     public ImageResponse uploadImage(Long productId, MultipartFile file) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
-        String filename = fileStorage.store(file);
+        StagedFile staged = fileStorage.stage(file);
+        String filename = staged.filename();
         String url = "/api/v1/products/" + productId + "/images/" + filename;
         ProductImage img = ProductImage.builder()
                 .product(product)
@@ -38,7 +86,102 @@ public class ProductImageServiceImpl implements ProductImageService {
                 .url(url)
                 .uploadedAt(LocalDateTime.now())
                 .build();
-        return imageMapper.toResponse(imageRepository.save(img));
+
+        // The blob and its new reference are written under the same lock as deleteImage's
+        // reference check, so a concurrent delete can't remove a blob that just gained a row
+        boolean created;
+        Lock lock = fileStorage.lockFor(filename);
+        lock.lock();
+        try {
+            created = fileStorage.commit(staged);
+            img = imageRepository.save(img);
+        } finally {
+            lock.unlock();
+        }
+        productRepository.incrementVersion(productId);
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(productId, ProductEvent.Type.UPDATED, null));
+        if (created) {
+            variantService.generateAsync(filename);
+        }
+        return imageMapper.toResponse(img);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
+    public ImageBatchUploadResponse uploadImages(Long productId, List<MultipartFile> files) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
+
+        // Write all files to disk in parallel; each one succeeds or fails on its own
+        List<CompletableFuture<StagedFile>> writes = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> fileStorage.stage(file), imageUploadExecutor))
+                .toList();
+
+        List<StagedFile> staged = new ArrayList<>();
+        List<String> stagedNames = new ArrayList<>();
+        List<ImageUploadError> failed = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            String name = files.get(i).getOriginalFilename();
+            try {
+                staged.add(writes.get(i).join());
+                stagedNames.add(name);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Failed to upload image {} for product {}: {}", name, productId, cause.getMessage());
+                failed.add(new ImageUploadError(name, cause.getMessage()));
+            }
+        }
+        if (staged.isEmpty()) {
+            return new ImageBatchUploadResponse(List.of(), failed);
+        }
+
+        // Same locking as uploadImage, taken for all blobs at once; rows go in one JDBC batch.
+        // A blob that can't be moved into place is reported like a failed write.
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductImage> rows = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+        List<Lock> locks = fileStorage.locksFor(staged.stream().map(StagedFile::filename).toList());
+        locks.forEach(Lock::lock);
+        try {
+            for (int i = 0; i < staged.size(); i++) {
+                StagedFile file = staged.get(i);
+                try {
+                    if (fileStorage.commit(file)) {
+                        created.add(file.filename());
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to store image {} for product {}: {}", stagedNames.get(i), productId, e.getMessage());
+                    failed.add(new ImageUploadError(stagedNames.get(i), e.getMessage()));
+                    continue;
+                }
+                rows.add(ProductImage.builder()
+                        .product(product)
+                        .productId(productId)
+                        .filename(file.filename())
+                        .url("/api/v1/products/" + productId + "/images/" + file.filename())
+                        .uploadedAt(now)
+                        .build());
+            }
+            if (rows.isEmpty()) {
+                return new ImageBatchUploadResponse(List.of(), failed);
+            }
+            try {
+                rows = imageRepository.saveAll(rows);
+            } catch (RuntimeException e) {
+                // Blobs created by this batch have no other references yet (we hold their locks)
+                created.forEach(fileStorage::deleteIfExists);
+                throw e;
+            }
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+        productRepository.incrementVersion(productId);
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(productId, ProductEvent.Type.UPDATED, null));
+        created.forEach(variantService::generateAsync);
+
+        return new ImageBatchUploadResponse(rows.stream().map(imageMapper::toResponse).toList(), failed);
     }
 
     @Override
@@ -52,11 +195,45 @@ public class ProductImageServiceImpl implements ProductImageService {
         return fileStorage.load(filename);
     }
 
+    @Override
+    public StoredFile statImage(String filename) {
+        return fileStorage.stat(filename);
+    }
+
+    @Override
+    public StoredFile statImage(String filename, Integer width) {
+        return width == null ? fileStorage.stat(filename) : variantService.resolve(filename, width);
+    }
+
+    @Override
+    public String imageName(String filename, Integer width) {
+        return width == null ? filename : variantService.variantFor(filename, width);
+    }
+
     @Override
     public void deleteImage(Long imageId) {
         ProductImage img = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Image not found: " + imageId));
-        fileStorage.delete(img.getFilename());
-        imageRepository.delete(img);
+        Lock lock = fileStorage.lockFor(img.getFilename());
+        lock.lock();
+        try {
+            imageRepository.delete(img);
+            // Identical uploads share one blob; it goes away with its last reference
+            if (imageRepository.countByFilename(img.getFilename()) == 0) {
+                fileStorage.delete(img.getFilename());
+                imageCache.invalidate(img.getFilename());
+                variantService.deleteVariants(img.getFilename());
+            }
+        } finally {
+            lock.unlock();
+        }
+        productRepository.incrementVersion(img.getProductId());
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(img.getProductId(), ProductEvent.Type.UPDATED, null));
+
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evict(img.getProductId());
+        }
     }
 }
\ No newline at end of file
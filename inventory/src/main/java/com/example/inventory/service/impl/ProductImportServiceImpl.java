@@ -0,0 +1,202 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ImportRowError;
+import com.example.inventory.dto.ProductImportResponse;
+import com.example.inventory.dto.ProductRequest;
+import com.example.inventory.dto.ProductsImportedEvent;
+import com.example.inventory.mapper.ProductMapper;
+import com.example.inventory.model.Product;
+import com.example.inventory.service.ProductImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Streams the request body row by row; only one batch of entities is held in memory at a time.
+// Each batch commits in its own transaction, so a failing batch doesn't undo earlier ones.
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final ObjectReader csvReader;
+    private final ObjectReader jsonReader;
+    private final Validator validator;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductPageCache pageCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportServiceImpl(ObjectMapper objectMapper,
+                                    Validator validator,
+                                    ProductMapper productMapper,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    ProductPageCache pageCache,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${product.import.batch-size:500}") int batchSize,
+                                    @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.csvReader = CSV_MAPPER.readerFor(ProductRequest.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.jsonReader = objectMapper.readerFor(ProductRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.validator = validator;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageCache = pageCache;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public ProductImportResponse importCsv(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (MappingIterator<ProductRequest> rows = csvReader.readValues(body)) {
+            while (true) {
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    run.accept(rows.nextValue());
+                } catch (JsonMappingException e) {
+                    // Bad value in one row; the iterator resyncs to the next row
+                    run.reject(e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            run.abort("Malformed CSV, import stopped: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    @Override
+    public ProductImportResponse importNdjson(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.accept(jsonReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    run.reject(e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            run.abort("Could not read request body, import stopped: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    private class ImportRun {
+        private final List<Product> batch = new ArrayList<>(batchSize);
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long row;
+        private long batchStartRow = 1;
+        private long imported;
+        private long failed;
+        private boolean truncated;
+
+        void accept(ProductRequest parsed) {
+            ProductRequest request = parsed.normalized();
+            row++;
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                failed++;
+                error(row, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (batch.isEmpty()) {
+                batchStartRow = row;
+            }
+            batch.add(productMapper.toEntity(request));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(String message) {
+            row++;
+            failed++;
+            error(row, message);
+        }
+
+        void abort(String message) {
+            error(row + 1, message);
+        }
+
+        ProductImportResponse finish() {
+            flush();
+            if (imported > 0) {
+                pageCache.invalidate();
+                eventPublisher.publishEvent(new ProductsImportedEvent(imported));
+            }
+            log.info("Product import finished: {} rows, {} imported, {} failed", row, imported, failed);
+            return new ProductImportResponse(row, imported, failed, errors, truncated);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                    batch.forEach(entityManager::persist);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                imported += batch.size();
+            } catch (RuntimeException e) {
+                log.error("Product import batch at row {} failed: {}", batchStartRow, e.getMessage());
+                failed += batch.size();
+                error(batchStartRow, "Batch of " + batch.size() + " rows starting here was not saved: "
+                        + e.getMessage());
+            }
+            batch.clear();
+        }
+
+        private void error(long errorRow, String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(errorRow, message));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+}
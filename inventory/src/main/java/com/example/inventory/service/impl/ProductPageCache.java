@@ -0,0 +1,62 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Caches the first list pages under a catalog version. Any write bumps the version,
+// so older entries are never read again and simply age out of the cache.
+@Component
+public class ProductPageCache {
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Cache cache;
+    private final int maxPage;
+    private final int maxSize;
+
+    public ProductPageCache(CacheManager cacheManager,
+                            @Value("${product.page-cache.max-page:5}") int maxPage,
+                            @Value("${product.page-cache.max-size:100}") int maxSize) {
+        this.cache = cacheManager.getCache(CacheConfig.PRODUCT_PAGES);
+        this.maxPage = maxPage;
+        this.maxSize = maxSize;
+    }
+
+    public Page<ProductResponse> get(Pageable pageable, String nameFilter, Supplier<Page<ProductResponse>> loader) {
+        if (cache == null || pageable.getPageNumber() > maxPage || pageable.getPageSize() > maxSize) {
+            return loader.get();
+        }
+        // Read the version before loading: a page loaded concurrently with a write is stored
+        // under the old version at worst, never under the new one
+        String key = catalogVersion.get() + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize()
+                + ":" + normalize(nameFilter);
+        return cache.get(key, loader::get);
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogVersion.incrementAndGet();
+                }
+            });
+        } else {
+            catalogVersion.incrementAndGet();
+        }
+    }
+
+    private static String normalize(String nameFilter) {
+        return nameFilter == null ? "" : nameFilter.trim().toLowerCase(Locale.ROOT);
+    }
+}
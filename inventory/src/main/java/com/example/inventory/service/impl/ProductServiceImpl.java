@@ -1,54 +1,85 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductEvent;
 import com.example.inventory.dto.ProductRequest;
 import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.dto.ProductSliceResponse;
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.exception.PreconditionFailedException;
 import com.example.inventory.exception.ResourceNotFoundException;
 import com.example.inventory.mapper.ProductMapper;
 import com.example.inventory.model.Product;
 import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.service.ProductChangeService;
 import com.example.inventory.service.ProductService;
+import com.example.inventory.utils.CursorCodec;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.List;
+import java.util.Locale;
+
+// One timer per method (class and method tags), with histogram buckets from application.properties
 @RequiredArgsConstructor
 @Service
 @Validated
 @Transactional
+@Timed("inventory.products.service")
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductPageCache pageCache;
+    private final ProductChangeService changeService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Disable when running against a database without pg_trgm (e.g. an embedded test database)
+    @Value("${product.search.trigram-enabled:true}")
+    private boolean trigramSearchEnabled;
 
     @Override
     public ProductResponse createProduct(@Valid ProductRequest request) {
         if (request == null) {
-            throw new IllegalArgumentException("Product request cannot be null");
+            throw new BadRequestException("Product request cannot be null");
         }
 
         Product product = productMapper.toEntity(request);
         if (product.getName() == null || product.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Product name is required");
+            throw new BadRequestException("Product name is required");
         }
 
         product = productRepository.save(product);
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(product.getId(), ProductEvent.Type.CREATED, product.getQuantity()));
         return productMapper.toResponse(product);
     }
 
     @Override
-    public ProductResponse updateProduct(Long id, @Valid ProductRequest request) {
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public ProductResponse updateProduct(Long id, @Valid ProductRequest request, Long expectedVersion) {
         if (request == null) {
-            throw new IllegalArgumentException("Product request cannot be null");
+            throw new BadRequestException("Product request cannot be null");
         }
 
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+        checkVersion(existing, expectedVersion);
 
         if (request.getName() == null || request.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Product name is required");
+            throw new BadRequestException("Product name is required");
         }
 
         existing.setName(request.getName().trim());
@@ -56,21 +87,36 @@ public class ProductServiceImpl implements ProductService {
         existing.setPrice(request.getPrice());
         existing.setQuantity(request.getQuantity());
 
-        existing = productRepository.save(existing);
+        // Flushed here so the response carries the incremented version, and a concurrent
+        // writer that committed since our read surfaces as a precondition failure
+        try {
+            existing = productRepository.saveAndFlush(existing);
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Product " + id + " was modified concurrently");
+        }
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(id, ProductEvent.Type.UPDATED, existing.getQuantity()));
         return productMapper.toResponse(existing);
     }
 
     @Override
     @Transactional
-    public void deleteProduct(Long id) {
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public void deleteProduct(Long id, Long expectedVersion) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+        checkVersion(product, expectedVersion);
 
         // The images will be automatically deleted due to CascadeType.ALL and orphanRemoval = true
         productRepository.delete(product);
+        changeService.recordDeletion(id);
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(id, ProductEvent.Type.DELETED, null));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponse getProductById(Long id) {
         return productMapper.toResponse(
                 productRepository.findById(id)
@@ -78,11 +124,68 @@ public class ProductServiceImpl implements ProductService {
         );
     }
 
+    // A single-column primary key lookup, so If-None-Match hits skip the image query and mapping
+    @Override
+    @Transactional(readOnly = true)
+    public Long getProductVersion(Long id) {
+        return productRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductResponse> getAllProducts(Pageable pageable, String nameFilter) {
-        return (nameFilter == null || nameFilter.isBlank()) ?
-                productRepository.findAll(pageable).map(productMapper::toResponse) :
-                productRepository.findByNameContainingIgnoreCase(nameFilter, pageable)
-                        .map(productMapper::toResponse);
+        return pageCache.get(pageable, nameFilter, () -> loadPage(pageable, nameFilter));
+    }
+
+    private Page<ProductResponse> loadPage(Pageable pageable, String nameFilter) {
+        Page<Product> products;
+        if (nameFilter == null || nameFilter.isBlank()) {
+            products = productRepository.findAll(pageable);
+        } else if (trigramSearchEnabled) {
+            products = searchByName(nameFilter, pageable);
+        } else {
+            products = productRepository.findByNameLike("%" + escapeLike(normalizeTerm(nameFilter)) + "%", pageable);
+        }
+        return productMapper.toResponsePage(products);
+    }
+
+    private static void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException("Product " + product.getId() + " has version "
+                    + product.getVersion() + ", not " + expectedVersion);
+        }
+    }
+
+    private Page<Product> searchByName(String nameFilter, Pageable pageable) {
+        String term = normalizeTerm(nameFilter);
+        String escaped = escapeLike(term);
+        return productRepository.searchByName(term, "%" + escaped + "%", escaped + "%",
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSliceResponse getProductsAfter(String cursor, int size, String nameFilter) {
+        long afterId = CursorCodec.decode(cursor);
+        // Always page 0: the keyset predicate replaces OFFSET, and Slice skips the count query
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Product> slice = (nameFilter == null || nameFilter.isBlank()) ?
+                productRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageable) :
+                productRepository.findByIdGreaterThanAndNameLike(afterId,
+                        "%" + escapeLike(normalizeTerm(nameFilter)) + "%", pageable);
+
+        List<Product> products = slice.getContent();
+        String nextCursor = slice.hasNext() && !products.isEmpty() ?
+                CursorCodec.encode(products.get(products.size() - 1).getId()) : null;
+        return new ProductSliceResponse(productMapper.toResponseList(products), size, slice.hasNext(), nextCursor);
+    }
+
+    private static String normalizeTerm(String nameFilter) {
+        return nameFilter.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
-}
\ No newline at end of file
+}
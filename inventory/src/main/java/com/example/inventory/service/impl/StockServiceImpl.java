@@ -0,0 +1,190 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductEvent;
+import com.example.inventory.dto.StockLine;
+import com.example.inventory.dto.StockResponse;
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ResourceNotFoundException;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.service.StockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Every stock change is one conditional UPDATE ... RETURNING: the row lock is held only for
+// that statement, and the WHERE clause rejects changes that would take quantity below zero.
+// Single-product changes don't open a transaction (SUPPORTS): a hot product is decided in
+// memory without touching a connection, and the database path is one auto-committed statement.
+@RequiredArgsConstructor
+@Service
+public class StockServiceImpl implements StockService {
+    private static final String RESERVE = """
+            UPDATE products SET quantity = quantity - ?, version = version + 1
+            WHERE id = ? AND quantity >= ?
+            RETURNING quantity
+            """;
+    // Bounds are checked in bigint so a change past the int range is rejected instead of failing the statement
+    private static final String RELEASE = """
+            UPDATE products SET quantity = quantity + ?, version = version + 1
+            WHERE id = ? AND quantity::bigint + ? <= 2147483647
+            RETURNING quantity
+            """;
+    private static final String ADJUST = """
+            UPDATE products SET quantity = quantity + ?, version = version + 1
+            WHERE id = ? AND quantity::bigint + ? BETWEEN 0 AND 2147483647
+            RETURNING quantity
+            """;
+    private static final ResultSetExtractor<Integer> QUANTITY = rs -> rs.next() ? rs.getInt(1) : null;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final ProductPageCache pageCache;
+    private final HotStockService hotStock;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public StockResponse reserve(Long productId, int quantity) {
+        Long hotRemaining = hotStock.reserve(productId, quantity);
+        if (hotRemaining != null) {
+            return hotChanged(productId, hotRemaining);
+        }
+        return reserveInDatabase(productId, quantity);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public StockResponse release(Long productId, int quantity) {
+        Long hotRemaining = hotStock.release(productId, quantity);
+        if (hotRemaining != null) {
+            return hotChanged(productId, hotRemaining);
+        }
+        Integer remaining = jdbcTemplate.query(RELEASE, QUANTITY, quantity, productId, quantity);
+        return changed(productId, remaining, () -> tooMuchStock(productId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public StockResponse adjust(Long productId, int delta) {
+        Long hotRemaining = hotStock.adjust(productId, delta);
+        if (hotRemaining != null) {
+            return hotChanged(productId, hotRemaining);
+        }
+        Integer remaining = jdbcTemplate.query(ADJUST, QUANTITY, delta, productId, delta);
+        return changed(productId, remaining, () -> delta > 0 ? tooMuchStock(productId)
+                : new InsufficientStockException("Adjustment would make stock negative for product " + productId));
+    }
+
+    // All lines succeed or the transaction rolls back. Lines are applied in product id order
+    // so two baskets touching the same products can't deadlock on each other's row locks.
+    // The rollback only covers database lines: hot lines are handed back once the transaction
+    // has rolled back, whether it failed here or at commit.
+    @Override
+    @Transactional
+    public List<StockResponse> reserveAll(List<StockLine> lines) {
+        List<StockResponse> result = new ArrayList<>();
+        Map<Long, Integer> hotReserved = new TreeMap<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    hotReserved.forEach(hotStock::giveBack);
+                }
+            }
+        });
+        merge(lines).forEach((productId, quantity) -> {
+            Long hotRemaining = hotStock.reserve(productId, quantity);
+            if (hotRemaining != null) {
+                hotReserved.put(productId, quantity);
+                result.add(hotChanged(productId, hotRemaining));
+            } else {
+                result.add(reserveInDatabase(productId, quantity));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public List<StockResponse> releaseAll(List<StockLine> lines) {
+        List<StockResponse> result = new ArrayList<>();
+        merge(lines).forEach((productId, quantity) -> result.add(release(productId, quantity)));
+        return result;
+    }
+
+    // Not transactional: activation reads the committed quantity, deactivation runs its own flush
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void markHot(Long productId) {
+        hotStock.activate(productId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void unmarkHot(Long productId) {
+        hotStock.deactivate(productId);
+    }
+
+    private StockResponse reserveInDatabase(Long productId, int quantity) {
+        Integer remaining = jdbcTemplate.query(RESERVE, QUANTITY, quantity, productId, quantity);
+        return changed(productId, remaining,
+                () -> new InsufficientStockException("Insufficient stock for product " + productId));
+    }
+
+    private StockResponse changed(Long productId, Integer remaining, Supplier<RuntimeException> conflict) {
+        if (remaining == null) {
+            // Only the failure path pays for telling "missing" apart from a rejected change
+            if (!productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException("Product not found: " + productId);
+            }
+            throw conflict.get();
+        }
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evict(productId);
+        }
+        pageCache.invalidate();
+        eventPublisher.publishEvent(new ProductEvent(productId, ProductEvent.Type.STOCK_CHANGED, remaining));
+        return new StockResponse(productId, remaining);
+    }
+
+    // Caches are refreshed by the hot-stock flush; subscribers hear about the change right away
+    private StockResponse hotChanged(Long productId, long remaining) {
+        eventPublisher.publishEvent(new ProductEvent(productId, ProductEvent.Type.STOCK_CHANGED, (int) remaining));
+        return new StockResponse(productId, (int) remaining);
+    }
+
+    private static BadRequestException tooMuchStock(Long productId) {
+        return new BadRequestException("Change would exceed the maximum stock for product " + productId);
+    }
+
+    // Lines for the same product are summed; the sum is held to the same bound as a single line
+    private static Map<Long, Integer> merge(List<StockLine> lines) {
+        Map<Long, Integer> merged = new TreeMap<>();
+        lines.forEach(line -> {
+            int total = merged.merge(line.getProductId(), line.getQuantity(), Math::addExact);
+            if (total > StockLine.MAX_QUANTITY) {
+                throw new BadRequestException("Quantity for product " + line.getProductId()
+                        + " must be at most " + StockLine.MAX_QUANTITY);
+            }
+        });
+        return merged;
+    }
+}
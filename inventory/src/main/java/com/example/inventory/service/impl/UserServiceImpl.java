@@ -9,47 +9,74 @@ import com.example.inventory.model.Role;
 import com.example.inventory.model.User;
 import com.example.inventory.repository.RoleRepository;
 import com.example.inventory.repository.UserRepository;
+import com.example.inventory.security.CustomUserDetailsService;
 import com.example.inventory.security.JwtUtil;
+import com.example.inventory.security.LoginThrottle;
+import com.example.inventory.security.PasswordHashingService;
+import com.example.inventory.security.TokenVersionRegistry;
+import com.example.inventory.security.UnknownUsernameCache;
 import com.example.inventory.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @RequiredArgsConstructor
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authManager;
+    private final PasswordHashingService passwordHashing;
+    private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionRegistry tokenVersions;
+    private final LoginThrottle loginThrottle;
+    private final UnknownUsernameCache unknownUsernames;
 
     @Override
-    public void register(UserRegistrationDto dto) {
+    public CompletableFuture<Void> register(UserRegistrationDto dto) {
         if (userRepository.findByUsername(dto.getUsername()).isPresent()) {
             throw new DuplicateResourceException("User exists: " + dto.getUsername());
         }
-        User user = User.builder()
-                .username(dto.getUsername())
-                .password(passwordEncoder.encode(dto.getPassword()))
-                .build();
         Role role = roleRepository.findByName("ROLE_USER")
                 .orElseThrow(() -> new ResourceNotFoundException("ROLE_USER not found"));
-        user.getRoles().add(role);
-        userRepository.save(user);
+        return passwordHashing.encodeAndStore(dto.getPassword(), encoded -> {
+            User user = User.builder()
+                    .username(dto.getUsername())
+                    .password(encoded)
+                    .build();
+            user.getRoles().add(role);
+            userRepository.save(user);
+            unknownUsernames.remove(user.getUsername());
+        });
     }
 
+    // Throttling is checked before any lookup or hashing, so a blocked username or address costs
+    // neither. Unknown usernames fail after the same delay as a wrong password.
     @Override
-    public String login(UserLoginDto dto) {
-        Authentication auth = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(dto.getUsername(), dto.getPassword())
-        );
-        UserDetails userDetails = (UserDetails) auth.getPrincipal();
-        return jwtUtil.generateToken(userDetails);
+    public CompletableFuture<String> login(UserLoginDto dto, String clientAddress) {
+        String username = dto.getUsername();
+        loginThrottle.check(username, clientAddress);
+        User user = unknownUsernames.contains(username)
+                ? null
+                : userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            unknownUsernames.add(username);
+            loginThrottle.recordFailure(username, clientAddress);
+            return passwordHashing.rejectAfterTypicalDelay()
+                    .thenApply(matched -> issueToken(null, matched));
+        }
+        return passwordHashing.matches(dto.getPassword(), user.getPassword())
+                .thenApply(matched -> {
+                    if (matched) {
+                        loginThrottle.recordSuccess(username);
+                        upgradeHashIfNeeded(user, dto.getPassword());
+                    } else {
+                        loginThrottle.recordFailure(username, clientAddress);
+                    }
+                    return issueToken(user, matched);
+                });
     }
 
     @Override
@@ -59,6 +86,23 @@ public class UserServiceImpl implements UserService {
         Role role = roleRepository.findByName(dto.getRoleName())
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + dto.getRoleName()));
         user.getRoles().add(role);
+        // Tokens issued before the change carry the old roles, so they are rejected from now on
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        tokenVersions.update(user.getUsername(), user.getTokenVersion());
+    }
+
+    private void upgradeHashIfNeeded(User user, String rawPassword) {
+        if (passwordHashing.needsUpgrade(user.getPassword())) {
+            passwordHashing.upgrade(rawPassword,
+                    upgraded -> userRepository.upgradePassword(user.getId(), user.getPassword(), upgraded));
+        }
+    }
+
+    private String issueToken(User user, boolean matched) {
+        if (!matched) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return jwtUtil.generateToken(userDetailsService.toUserDetails(user), user.getTokenVersion());
     }
-}
\ No newline at end of file
+}
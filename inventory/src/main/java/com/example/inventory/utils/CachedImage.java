@@ -0,0 +1,78 @@
+package com.example.inventory.utils;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// An image held in a direct (off-heap) buffer. Readers work on duplicates, so the shared
+// buffer's position never moves.
+public record CachedImage(ByteBuffer content, long lastModified) {
+
+    public int size() {
+        return content.capacity();
+    }
+
+    public Resource asResource() {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "cached image [" + size() + " bytes]";
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new BufferInputStream(content.duplicate());
+            }
+
+            @Override
+            public long contentLength() {
+                return size();
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        };
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.inventory.utils;
+
+import java.time.LocalDateTime;
+
+// Position in the change feed: the last (transaction id, product id) a consumer has seen, plus that
+// change's time, which only decides whether the cursor has outlived the tombstone retention
+public record ChangeCursor(long xid, long id, LocalDateTime changedAt) {
+    public static final ChangeCursor START = new ChangeCursor(0L, 0L, LocalDateTime.of(1970, 1, 1, 0, 0));
+}
@@ -0,0 +1,71 @@
+package com.example.inventory.utils;
+
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.exception.CursorExpiredException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursors: clients only pass back what they received in nextCursor
+public final class CursorCodec {
+    private static final String PREFIX = "id:";
+    private static final String CHANGE_PREFIX = "cx:";
+    // Change cursors from before the feed was ordered by transaction id
+    private static final String LEGACY_CHANGE_PREFIX = "ch:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeChange(ChangeCursor cursor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CHANGE_PREFIX + cursor.xid() + "|" + cursor.id() + "|" + cursor.changedAt())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeCursor decodeChange(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ChangeCursor.START;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+        if (raw.startsWith(LEGACY_CHANGE_PREFIX)) {
+            throw new CursorExpiredException("Cursor predates the commit-ordered change feed, resync required");
+        }
+        try {
+            if (!raw.startsWith(CHANGE_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String[] parts = raw.substring(CHANGE_PREFIX.length()).split("\\|", 3);
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
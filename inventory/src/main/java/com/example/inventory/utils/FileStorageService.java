@@ -1,5 +1,11 @@
 package com.example.inventory.utils;
 
+import com.example.inventory.exception.BadRequestException;
+import com.example.inventory.exception.ResourceNotFoundException;
+import com.example.inventory.profiling.RequestProfile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,23 +16,62 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 public class FileStorageService {
 
+    private static final int LOCK_STRIPES = 64;
+
     private final Path storageLocation;
+    private final boolean contentAddressed;
+    private final Lock[] blobLocks = new Lock[LOCK_STRIPES];
+    private final Timer stageTimer;
+    private final Timer loadTimer;
+    private final Timer statTimer;
+    private final Timer deleteTimer;
+    private final DistributionSummary writtenBytes;
+    private final DistributionSummary servedBytes;
 
-    public FileStorageService(@Value("${file.storage.location:uploads}") String storageDir) {
+    public FileStorageService(@Value("${file.storage.location:uploads}") String storageDir,
+                              @Value("${file.storage.content-addressed:true}") boolean contentAddressed,
+                              MeterRegistry meterRegistry) {
         this.storageLocation = Paths.get(storageDir).toAbsolutePath().normalize();
+        this.contentAddressed = contentAddressed;
+        this.stageTimer = Timer.builder("inventory.storage.operations").tag("operation", "stage").register(meterRegistry);
+        this.loadTimer = Timer.builder("inventory.storage.operations").tag("operation", "load").register(meterRegistry);
+        this.statTimer = Timer.builder("inventory.storage.operations").tag("operation", "stat").register(meterRegistry);
+        this.deleteTimer = Timer.builder("inventory.storage.operations").tag("operation", "delete").register(meterRegistry);
+        this.writtenBytes = DistributionSummary.builder("inventory.storage.bytes").baseUnit("bytes")
+                .tag("operation", "stage").register(meterRegistry);
+        // Size of files looked up for serving; the transfer itself happens in the servlet container
+        this.servedBytes = DistributionSummary.builder("inventory.storage.bytes").baseUnit("bytes")
+                .tag("operation", "stat").register(meterRegistry);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
     }
 
     @PostConstruct
@@ -40,37 +85,139 @@ public class FileStorageService {
     }
 
     public String store(MultipartFile file) {
+        StagedFile staged = stage(file);
+        Lock lock = lockFor(staged.filename());
+        lock.lock();
+        try {
+            commit(staged);
+            return staged.filename();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes the upload to a temp file in one pass. In content-addressed mode the SHA-256 is
+    // computed from the same stream, so the final name is known without reading the file again.
+    public StagedFile stage(MultipartFile file) {
         if (file.isEmpty()) {
-            throw new IllegalArgumentException("Cannot store empty file");
+            throw new BadRequestException("Cannot store empty file");
         }
 
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
         if (originalFilename.contains("..")) {
-            throw new IllegalArgumentException("Cannot store file with relative path outside current directory");
+            throw new BadRequestException("Cannot store file with relative path outside current directory");
         }
 
-        // Генерирај уникатно име за фајлот
-        String extension = getFileExtension(originalFilename);
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String filename = timestamp + "_" + UUID.randomUUID().toString() + extension;
-
+        String extension = getFileExtension(originalFilename).toLowerCase(Locale.ROOT);
+        Path tmp = null;
+        long start = System.nanoTime();
         try {
-            Path targetLocation = this.storageLocation.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            log.info("File stored successfully: {}", filename);
-            return filename;
-        } catch (IOException e) {
+            tmp = Files.createTempFile(storageLocation, ".upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                writtenBytes.record(Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING));
+            }
+            record(stageTimer, start);
+
+            String filename;
+            if (contentAddressed) {
+                filename = HexFormat.of().formatHex(digest.digest()) + extension;
+            } else {
+                // Генерирај уникатно име за фајлот
+                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+                filename = timestamp + "_" + UUID.randomUUID().toString() + extension;
+            }
+            return new StagedFile(tmp, filename);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
             log.error("Could not store file {}: {}", originalFilename, e.getMessage());
             throw new RuntimeException("Could not store file " + originalFilename, e);
         }
     }
 
+    // Moves a staged file into place. Returns false when an identical blob is already stored,
+    // in which case the staged copy is dropped. Callers should hold lockFor(filename).
+    public boolean commit(StagedFile staged) {
+        Path target = resolve(staged.filename());
+        try {
+            if (contentAddressed && Files.exists(target)) {
+                Files.deleteIfExists(staged.tempPath());
+                log.info("Duplicate upload, reusing stored file: {}", staged.filename());
+                return false;
+            }
+            Files.move(staged.tempPath(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("File stored successfully: {}", staged.filename());
+            return true;
+        } catch (IOException e) {
+            deleteQuietly(staged.tempPath());
+            log.error("Could not store file {}: {}", staged.filename(), e.getMessage());
+            throw new RuntimeException("Could not store file " + staged.filename(), e);
+        }
+    }
+
+    // Serializes writes and reference-checked deletes of the same blob
+    public Lock lockFor(String filename) {
+        return blobLocks[Math.floorMod(filename.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Distinct stripe locks for several blobs, in stripe order so concurrent batches can't deadlock
+    public List<Lock> locksFor(Collection<String> filenames) {
+        return filenames.stream()
+                .mapToInt(filename -> Math.floorMod(filename.hashCode(), LOCK_STRIPES))
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> blobLocks[stripe])
+                .toList();
+    }
+
+    // Copies an existing file to its content address (unless an identical blob is already there)
+    // and leaves the original in place, so the caller can repoint references before deleting it
+    public String copyToContentAddress(String filename) {
+        Path source = resolve(filename);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            String target = HexFormat.of().formatHex(digest.digest())
+                    + getFileExtension(filename).toLowerCase(Locale.ROOT);
+            if (target.equals(filename)) {
+                return filename;
+            }
+            Lock lock = lockFor(target);
+            lock.lock();
+            try {
+                if (!Files.exists(resolve(target))) {
+                    Path tmp = Files.createTempFile(storageLocation, ".migrate-", ".tmp");
+                    try {
+                        Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(tmp, resolve(target), StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(tmp);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return target;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("Could not migrate file {}: {}", filename, e.getMessage());
+            throw new RuntimeException("Could not migrate file " + filename, e);
+        }
+    }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
     public Resource load(String filename) {
+        long start = System.nanoTime();
         try {
-            Path filePath = storageLocation.resolve(filename).normalize();
+            Path filePath = resolve(filename);
             Resource resource = new UrlResource(filePath.toUri());
 
             if (resource.exists() && resource.isReadable()) {
+                record(loadTimer, start);
                 return resource;
             } else {
                 throw new RuntimeException("File not found: " + filename);
@@ -81,10 +228,32 @@ public class FileStorageService {
         }
     }
 
+    // Single metadata read (no exists/isReadable round trips) for serving with conditional headers
+    public StoredFile stat(String filename) {
+        long start = System.nanoTime();
+        Path filePath = resolve(filename);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                throw new ResourceNotFoundException("File not found: " + filename);
+            }
+            record(statTimer, start);
+            servedBytes.record(attributes.size());
+            return new StoredFile(filename, filePath, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + filename);
+        } catch (IOException e) {
+            log.error("Could not read file {}: {}", filename, e.getMessage());
+            throw new RuntimeException("Could not read file " + filename, e);
+        }
+    }
+
     public void delete(String filename) {
+        long start = System.nanoTime();
         try {
-            Path filePath = storageLocation.resolve(filename).normalize();
+            Path filePath = resolve(filename);
             boolean deleted = Files.deleteIfExists(filePath);
+            record(deleteTimer, start);
             if (deleted) {
                 log.info("File deleted successfully: {}", filename);
             } else {
@@ -96,6 +265,43 @@ public class FileStorageService {
         }
     }
 
+    private static void record(Timer timer, long start) {
+        long elapsed = System.nanoTime() - start;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        RequestProfile.fileOperation(elapsed);
+    }
+
+    public boolean exists(String filename) {
+        return Files.isRegularFile(resolve(filename));
+    }
+
+    public void deleteIfExists(String filename) {
+        try {
+            Files.deleteIfExists(resolve(filename));
+        } catch (IOException e) {
+            log.warn("Could not delete file {}: {}", filename, e.getMessage());
+        }
+    }
+
+    public Path resolve(String filename) {
+        Path filePath = storageLocation.resolve(filename).normalize();
+        if (!filePath.startsWith(storageLocation)) {
+            throw new BadRequestException("Cannot access file outside storage directory: " + filename);
+        }
+        return filePath;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || filename.isEmpty()) {
             return "";
@@ -0,0 +1,111 @@
+package com.example.inventory.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Small, frequently served images and variants kept in direct buffers, bounded by total bytes,
+// so hits skip the stat/open/read of the file system without growing the GC heap. An image is
+// only read into a buffer once it has missed admit-after times among the recently missed names
+// (a bounded on-heap set), so a crawler walking every image once allocates no direct memory.
+// Caffeine's TinyLFU then only lets it displace an image requested less often. Entries are keyed
+// by stored name; stored files are never rewritten under the same name, so only deletions need
+// invalidating. Direct memory is released when evicted buffers are collected;
+// -XX:MaxDirectMemorySize (see the Dockerfile) must leave room for max-bytes.
+@Slf4j
+@Component
+public class ImageCache {
+    private final Cache<String, CachedImage> cache;
+    // Misses per name of images not (yet) cached; only the most recent candidates are tracked
+    private final Cache<String, AtomicInteger> misses;
+    private final long maxEntrySize;
+    private final int admitAfter;
+
+    public ImageCache(MeterRegistry meterRegistry,
+                      @Value("${file.storage.cache.enabled:false}") boolean enabled,
+                      @Value("${file.storage.cache.max-bytes:33554432}") long maxBytes,
+                      @Value("${file.storage.cache.max-entry-size:65536}") long maxEntrySize,
+                      @Value("${file.storage.cache.admit-after:2}") int admitAfter,
+                      @Value("${file.storage.cache.candidates:10000}") long candidates) {
+        this.maxEntrySize = maxEntrySize;
+        this.admitAfter = admitAfter;
+        this.misses = enabled && admitAfter > 1 ? Caffeine.newBuilder().maximumSize(candidates).build() : null;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .<String, CachedImage>weigher((name, image) -> image.size())
+                    .recordStats()
+                    .build();
+            // cache.gets (hit/miss), cache.puts, cache.evictions and cache.size tagged cache=images
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "images");
+            Gauge.builder("inventory.images.cache.bytes", cache,
+                            c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("inventory.images.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .register(meterRegistry);
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public CachedImage get(String filename) {
+        return cache == null ? null : cache.getIfPresent(filename);
+    }
+
+    // Reads a just-stat'ed file into a direct buffer and offers it to the cache. Returns the
+    // buffered image to serve this request from, or null when caching is off, the file is too
+    // large, hasn't missed often enough yet, or could not be read (the caller then serves it from disk).
+    public CachedImage admit(StoredFile file) {
+        if (cache == null || file.size() > maxEntrySize || !missedOften(file.filename())) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) file.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            CachedImage image = new CachedImage(buffer.asReadOnlyBuffer(), file.lastModified());
+            cache.put(file.filename(), image);
+            return image;
+        } catch (IOException e) {
+            log.warn("Could not cache image {}: {}", file.filename(), e.getMessage());
+            return null;
+        }
+    }
+
+    public void invalidate(String filename) {
+        if (cache != null) {
+            cache.invalidate(filename);
+        }
+        if (misses != null) {
+            misses.invalidate(filename);
+        }
+    }
+
+    private boolean missedOften(String filename) {
+        if (misses == null) {
+            return true;
+        }
+        AtomicInteger count = misses.get(filename, name -> new AtomicInteger());
+        if (count.incrementAndGet() < admitAfter) {
+            return false;
+        }
+        misses.invalidate(filename);
+        return true;
+    }
+}
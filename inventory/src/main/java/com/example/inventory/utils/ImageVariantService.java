@@ -0,0 +1,210 @@
+package com.example.inventory.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Resized copies of uploaded images, stored next to the original as <name>_w<width>.<ext>.
+// Only the configured widths are generated, so clients can't request arbitrary sizes.
+@Slf4j
+@Service
+public class ImageVariantService {
+    private static final Pattern VARIANT_NAME = Pattern.compile(".*_w\\d+(\\.[^.]*)?");
+
+    private final FileStorageService fileStorage;
+    private final ImageCache imageCache;
+    private final TaskExecutor executor;
+    private final int[] widths;
+    private final Semaphore onDemandPermits;
+    private final long onDemandWaitMillis;
+    private final Timer generationTimer;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter fallbacks;
+
+    public ImageVariantService(FileStorageService fileStorage,
+                               ImageCache imageCache,
+                               @Qualifier("imageVariantExecutor") TaskExecutor executor,
+                               MeterRegistry meterRegistry,
+                               @Value("${file.storage.variants.widths:200,600}") int[] widths,
+                               @Value("${file.storage.variants.on-demand-concurrency:2}") int onDemandConcurrency,
+                               @Value("${file.storage.variants.on-demand-wait:500}") long onDemandWaitMillis) {
+        this.fileStorage = fileStorage;
+        this.imageCache = imageCache;
+        this.executor = executor;
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.onDemandPermits = new Semaphore(onDemandConcurrency);
+        this.onDemandWaitMillis = onDemandWaitMillis;
+        this.generationTimer = Timer.builder("inventory.images.variants.generation")
+                .description("Time to generate a resized image variant")
+                .register(meterRegistry);
+        this.hits = Counter.builder("inventory.images.variants.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("inventory.images.variants.requests").tag("result", "miss").register(meterRegistry);
+        this.fallbacks = Counter.builder("inventory.images.variants.requests").tag("result", "fallback").register(meterRegistry);
+    }
+
+    public void generateAsync(String filename) {
+        if (isVariant(filename)) {
+            return;
+        }
+        executor.execute(() -> {
+            for (int width : widths) {
+                try {
+                    generate(filename, width);
+                } catch (Exception e) {
+                    log.warn("Could not generate {}px variant of {}: {}", width, filename, e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Returns the variant for the smallest configured width >= the requested one, generating it if
+    // needed. Falls back to the original when resizing is saturated or the format isn't supported.
+    // A variant is never used as a resize source, otherwise X_w200.png?w=200 would write
+    // X_w200_w200.png, and so on for every request.
+    public StoredFile resolve(String filename, int requestedWidth) {
+        StoredFile original = fileStorage.stat(filename);
+        if (isVariant(filename)) {
+            return original;
+        }
+        int width = selectWidth(requestedWidth);
+        String variantName = variantName(filename, width);
+
+        if (fileStorage.exists(variantName)) {
+            hits.increment();
+            return fileStorage.stat(variantName);
+        }
+
+        misses.increment();
+        boolean acquired = false;
+        try {
+            acquired = onDemandPermits.tryAcquire(onDemandWaitMillis, TimeUnit.MILLISECONDS);
+            if (acquired && generate(filename, width)) {
+                return fileStorage.stat(variantName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not generate {}px variant of {}: {}", width, filename, e.getMessage());
+        } finally {
+            if (acquired) {
+                onDemandPermits.release();
+            }
+        }
+        fallbacks.increment();
+        return original;
+    }
+
+    // Stored name of the variant resolve() serves for this width, without touching the disk
+    public String variantFor(String filename, int requestedWidth) {
+        return variantName(filename, selectWidth(requestedWidth));
+    }
+
+    public void deleteVariants(String filename) {
+        for (int width : widths) {
+            String variant = variantName(filename, width);
+            fileStorage.deleteIfExists(variant);
+            imageCache.invalidate(variant);
+        }
+    }
+
+    private boolean generate(String filename, int width) throws IOException {
+        Path variant = fileStorage.resolve(variantName(filename, width));
+        if (Files.exists(variant)) {
+            return true;
+        }
+        String format = formatOf(filename);
+        if (format == null) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        BufferedImage source = ImageIO.read(fileStorage.resolve(filename).toFile());
+        if (source == null) {
+            return false;
+        }
+        if (source.getWidth() <= width) {
+            // Never upscale: the original is already small enough
+            Files.copy(fileStorage.resolve(filename), variant, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (width / (double) source.getWidth())));
+        int type = source.getColorModel().hasAlpha() && !"jpg".equals(format)
+                ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage resized = new BufferedImage(width, height, type);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        // Write to a temp file and move, so a concurrent reader never sees a partial variant
+        Path tmp = Files.createTempFile(variant.getParent(), ".variant-", ".tmp");
+        try {
+            if (!ImageIO.write(resized, format, tmp.toFile())) {
+                return false;
+            }
+            Files.move(tmp, variant, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        generationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Generated {}px variant of {}", width, filename);
+        return true;
+    }
+
+    private int selectWidth(int requestedWidth) {
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    private static boolean isVariant(String filename) {
+        return VARIANT_NAME.matcher(filename).matches();
+    }
+
+    private static String variantName(String filename, int width) {
+        int dot = filename.lastIndexOf('.');
+        return dot == -1
+                ? filename + "_w" + width
+                : filename.substring(0, dot) + "_w" + width + filename.substring(dot);
+    }
+
+    private static String formatOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot == -1) {
+            return null;
+        }
+        String ext = filename.substring(dot + 1).toLowerCase();
+        return switch (ext) {
+            case "jpg", "jpeg" -> "jpg";
+            case "png", "gif", "bmp" -> ext;
+            default -> null;
+        };
+    }
+}
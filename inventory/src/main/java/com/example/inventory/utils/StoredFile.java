@@ -0,0 +1,6 @@
+package com.example.inventory.utils;
+
+import java.nio.file.Path;
+
+public record StoredFile(String filename, Path path, long size, long lastModified) {
+}
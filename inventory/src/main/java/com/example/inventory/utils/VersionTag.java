@@ -0,0 +1,30 @@
+package com.example.inventory.utils;
+
+// Strong entity tags carrying the product version, e.g. "7"
+public final class VersionTag {
+    private VersionTag() {
+    }
+
+    public static String format(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    // Returns null for a missing header or "*"; a tag that isn't one of ours can never match, so it maps to -1
+    public static Long parse(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) {
+            return null;
+        }
+        String tag = header.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
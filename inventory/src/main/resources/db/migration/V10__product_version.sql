@@ -0,0 +1,3 @@
+-- Optimistic locking: incremented by Hibernate on entity updates and by every JDBC
+-- statement that changes a product's representation (stock, images); exposed as the ETag
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
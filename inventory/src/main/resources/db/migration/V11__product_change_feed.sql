@@ -0,0 +1,21 @@
+-- Change feed: consumers page through (updated_at, id) with a keyset cursor, deletes are
+-- kept as tombstones. updated_at is now also set on insert, since Hibernate writes NULL there.
+DROP TRIGGER IF EXISTS update_products_updated_at ON products;
+
+UPDATE products SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+
+CREATE TRIGGER update_products_updated_at
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW
+EXECUTE FUNCTION update_updated_at_column();
+
+ALTER TABLE products ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products (updated_at, id);
+
+CREATE TABLE product_tombstones (
+    product_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_product_tombstones_deleted_at_id ON product_tombstones (deleted_at, product_id);
@@ -0,0 +1,32 @@
+-- The change feed paged on updated_at, the writer's start time, so a transaction committing after
+-- consumers had passed that time was never delivered. Rows now also record the id of the writing
+-- transaction. The feed only returns ids below the snapshot xmin, all of which have finished, so no
+-- row can appear behind a cursor later. Existing rows start at 0 (fast default, no rewrite).
+ALTER TABLE products ADD COLUMN change_xid BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product_tombstones ADD COLUMN change_xid BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION set_change_xid()
+    RETURNS TRIGGER AS $$
+BEGIN
+    NEW.change_xid = pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER set_products_change_xid
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW
+EXECUTE FUNCTION set_change_xid();
+
+CREATE TRIGGER set_product_tombstones_change_xid
+    BEFORE INSERT OR UPDATE ON product_tombstones
+    FOR EACH ROW
+EXECUTE FUNCTION set_change_xid();
+
+DROP INDEX IF EXISTS idx_products_updated_at_id;
+DROP INDEX IF EXISTS idx_product_tombstones_deleted_at_id;
+
+CREATE INDEX idx_products_change_xid_id ON products (change_xid, id);
+CREATE INDEX idx_product_tombstones_change_xid_id ON product_tombstones (change_xid, product_id);
+-- Tombstone purge by age
+CREATE INDEX idx_product_tombstones_deleted_at ON product_tombstones (deleted_at);
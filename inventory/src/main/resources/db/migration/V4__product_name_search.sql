@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Expression index on lower(name) serves both the derived LIKE queries
+-- (lower(name) like lower(?)) and the trigram similarity search
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- Bumped whenever a user's roles change; tokens carrying an older version are rejected
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Identical uploads share one stored file; deletes count the remaining references by filename
+CREATE INDEX IF NOT EXISTS idx_product_images_filename ON product_images (filename);
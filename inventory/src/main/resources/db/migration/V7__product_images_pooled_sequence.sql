@@ -0,0 +1,3 @@
+-- ProductImage ids are allocated by Hibernate's pooled optimizer (allocationSize = 50),
+-- which needs the sequence to advance in steps of the same size
+ALTER SEQUENCE product_images_id_seq INCREMENT BY 50;
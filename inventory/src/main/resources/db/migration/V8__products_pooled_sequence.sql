@@ -0,0 +1,3 @@
+-- Product ids are allocated by Hibernate's pooled optimizer (allocationSize = 50) so bulk
+-- imports can use JDBC batching; the sequence has to advance in steps of the same size
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
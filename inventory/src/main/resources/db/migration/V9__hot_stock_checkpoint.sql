@@ -0,0 +1,7 @@
+-- Last journal generation whose hot-stock reservations have been applied to products.quantity,
+-- written in the same transaction as the flushed deltas so replay after a crash is exactly-once
+CREATE TABLE hot_stock_checkpoint
+(
+    node       VARCHAR(100) PRIMARY KEY,
+    generation BIGINT NOT NULL
+);
@@ -0,0 +1,53 @@
+package com.example.inventory.mapper;
+
+import com.example.inventory.dto.ProductResponse;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.ProductImage;
+import com.example.inventory.repository.ProductImageRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductMapperTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void pageMappingIssuesOneImageQueryRegardlessOfPageSize(int size) {
+        ProductImageRepository imageRepository = mock(ProductImageRepository.class);
+        ProductMapper mapper = new ProductMapper(imageRepository, new ImageMapper());
+
+        List<Product> products = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> Product.builder().id(id).name("Product " + id)
+                        .price(BigDecimal.ONE).quantity(1).build())
+                .toList();
+        List<ProductImage> images = new ArrayList<>();
+        products.forEach(p -> images.add(ProductImage.builder()
+                .id(p.getId()).productId(p.getId()).filename("f" + p.getId()).url("u" + p.getId()).build()));
+        when(imageRepository.findAllByProductIdInOrderByIdAsc(anyCollection())).thenReturn(images);
+
+        Page<ProductResponse> page = mapper.toResponsePage(
+                new PageImpl<>(products, PageRequest.of(0, size), size * 3L));
+
+        verify(imageRepository, times(1)).findAllByProductIdInOrderByIdAsc(anyCollection());
+        verify(imageRepository, never()).findAllByProductId(anyLong());
+        assertThat(page.getTotalElements()).isEqualTo(size * 3L);
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getContent()).allSatisfy(r -> assertThat(r.getImages()).hasSize(1));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.inventory.profiling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestProfilingFilterTest {
+    private static final String IMAGES_BY_PRODUCT = "select * from product_images where product_id=?";
+
+    @Test
+    void repeatedStatementIsReportedEvenWhenNotSampled() throws Exception {
+        RequestProfileBuffer buffer = new RequestProfileBuffer(10);
+        RequestProfilingFilter filter = new RequestProfilingFilter(buffer, new SimpleMeterRegistry(), 0.0, 60_000, 5);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    RequestProfile.statementPrepared("select * from products limit ?");
+                    for (int i = 0; i < 20; i++) {
+                        RequestProfile.statementPrepared(IMAGES_BY_PRODUCT);
+                        RequestProfile.entityLoaded();
+                    }
+                });
+
+        assertThat(buffer.profiles()).singleElement().satisfies(entry -> {
+            assertThat(entry.reason()).isEqualTo("repeated-sql");
+            assertThat(entry.statements()).isEqualTo(21);
+            assertThat(entry.statementMillis()).isNull();
+            assertThat(entry.entityLoads()).isEqualTo(20);
+            assertThat(entry.repeatedSql()).isEqualTo(IMAGES_BY_PRODUCT);
+            assertThat(entry.repeatedSqlCount()).isEqualTo(20);
+        });
+        // Nothing is recorded outside a profiled request
+        RequestProfile.statementPrepared(IMAGES_BY_PRODUCT);
+        assertThat(RequestProfile.active()).isFalse();
+    }
+
+    @Test
+    void onlySampledRequestsTimeStatements() throws Exception {
+        RequestProfileBuffer buffer = new RequestProfileBuffer(10);
+        RequestProfilingFilter filter = new RequestProfilingFilter(buffer, new SimpleMeterRegistry(), 1.0, 60_000, 5);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    assertThat(RequestProfile.timing()).isTrue();
+                    RequestProfile.statementPrepared("select * from products where id=?");
+                    RequestProfile.statementExecuted(2_000_000);
+                });
+
+        assertThat(buffer.profiles()).singleElement().satisfies(entry -> {
+            assertThat(entry.reason()).isEqualTo("sampled");
+            assertThat(entry.statementMillis()).isEqualTo(2L);
+        });
+
+        RequestProfilingFilter unsampled = new RequestProfilingFilter(buffer, new SimpleMeterRegistry(), 0.0, 60_000, 5);
+        unsampled.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockHttpServletResponse(),
+                (request, response) -> assertThat(RequestProfile.timing()).isFalse());
+    }
+
+    @Test
+    void ordinaryRequestIsNotReported() throws Exception {
+        RequestProfileBuffer buffer = new RequestProfileBuffer(10);
+        RequestProfilingFilter filter = new RequestProfilingFilter(buffer, new SimpleMeterRegistry(), 0.0, 60_000, 5);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockHttpServletResponse(),
+                (request, response) -> RequestProfile.statementPrepared("select * from products where id=?"));
+
+        assertThat(buffer.profiles()).isEmpty();
+    }
+}
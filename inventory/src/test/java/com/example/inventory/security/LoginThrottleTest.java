@@ -0,0 +1,49 @@
+package com.example.inventory.security;
+
+import com.example.inventory.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    void blocksUsernameAfterMaxFailuresUntilWindowEnds() {
+        LoginThrottle throttle = new LoginThrottle(1024, 3, 300, 100, 60);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("alice", "10.0.0." + i, NOW);
+        }
+
+        assertThatThrownBy(() -> throttle.check("alice", "10.0.0.9", NOW + 10))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(290));
+        assertThatCode(() -> throttle.check("alice", "10.0.0.9", NOW + 300)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void blocksAddressSprayingManyUsernames() {
+        LoginThrottle throttle = new LoginThrottle(1024, 3, 300, 10, 60);
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1", NOW);
+        }
+
+        assertThatThrownBy(() -> throttle.check("someone-else", "10.0.0.1", NOW))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> throttle.check("someone-else", "10.0.0.2", NOW)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successClearsUsernameButNotAddress() {
+        LoginThrottle throttle = new LoginThrottle(1024, 2, 300, 2, 60);
+        throttle.recordFailure("alice", "10.0.0.1", NOW);
+        throttle.recordFailure("alice", "10.0.0.1", NOW);
+        throttle.recordSuccess("alice");
+
+        assertThatCode(() -> throttle.check("alice", "10.0.0.2", NOW)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.check("bob", "10.0.0.1", NOW))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
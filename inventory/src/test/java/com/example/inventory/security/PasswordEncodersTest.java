@@ -0,0 +1,34 @@
+package com.example.inventory.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncodersTest {
+
+    @Test
+    void verifiesLegacyBcryptHashesAndFlagsThemForUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordEncoder encoder = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 4, 1000);
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void flagsLowerBcryptStrengthAndOtherSchemesForUpgrade() {
+        PasswordEncoder weak = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 4, 1000);
+        PasswordEncoder stronger = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 5, 1000);
+        PasswordEncoder pbkdf2 = PasswordEncoders.delegating(PasswordEncoders.PBKDF2, 5, 1000);
+        String hash = weak.encode("secret");
+
+        assertThat(stronger.matches("secret", hash)).isTrue();
+        assertThat(stronger.upgradeEncoding(hash)).isTrue();
+        assertThat(pbkdf2.matches("secret", hash)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(hash)).isTrue();
+        assertThat(pbkdf2.encode("secret")).startsWith("{pbkdf2}");
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.exception.InsufficientStockException;
+import com.example.inventory.exception.ServiceBusyException;
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotStockServiceTest {
+    private static final long PRODUCT_ID = 1L;
+    private static final int STOCK = 1_000;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        HotStockService service = hotStock(jdbcTemplate);
+        service.recover();
+        service.activate(PRODUCT_ID);
+
+        AtomicInteger reserved = new AtomicInteger();
+        ConcurrentLinkedQueue<Long> remainders = new ConcurrentLinkedQueue<>();
+        ExecutorService threads = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                workers.add(threads.submit(() -> {
+                    while (true) {
+                        try {
+                            remainders.add(service.reserve(PRODUCT_ID, 1));
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertThat(reserved.get()).isEqualTo(STOCK);
+        assertThat(remainders).allSatisfy(remaining -> assertThat(remaining).isNotNegative());
+        assertThatThrownBy(() -> service.reserve(PRODUCT_ID, 1)).isInstanceOf(InsufficientStockException.class);
+
+        service.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), updates.capture());
+        assertThat(updates.getValue()).singleElement()
+                .satisfies(args -> assertThat(args).containsExactly((long) -STOCK, PRODUCT_ID));
+    }
+
+    @Test
+    void unflushedReservationsAreReplayedAfterRestart() throws IOException {
+        HotStockService beforeCrash = hotStock(mock(JdbcTemplate.class));
+        beforeCrash.recover();
+        beforeCrash.activate(PRODUCT_ID);
+        beforeCrash.reserve(PRODUCT_ID, 30);
+        beforeCrash.reserve(PRODUCT_ID, 12);
+        beforeCrash.release(PRODUCT_ID, 2);
+        // No flush: the process dies with the changes only in the journal
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        hotStock(jdbcTemplate).recover();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), updates.capture());
+        assertThat(updates.getValue()).singleElement()
+                .satisfies(args -> assertThat(args).containsExactly(-40L, PRODUCT_ID));
+
+        // Replayed generations are deleted, so a second restart applies nothing
+        JdbcTemplate afterReplay = mock(JdbcTemplate.class);
+        hotStock(afterReplay).recover();
+        verify(afterReplay, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void productStaysHotWhenDeactivationCannotFlush() throws IOException {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        HotStockService service = hotStock(jdbcTemplate);
+        service.recover();
+        service.activate(PRODUCT_ID);
+        service.reserve(PRODUCT_ID, 10);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(() -> service.deactivate(PRODUCT_ID)).isInstanceOf(ServiceBusyException.class);
+
+        // Still served from the stripes, not reseeded from the stale row
+        assertThat(service.reserve(PRODUCT_ID, 1)).isEqualTo(STOCK - 11L);
+    }
+
+    @Test
+    void givenBackUnitsFollowADeactivatedProductToTheDatabase() throws IOException {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        HotStockService service = hotStock(jdbcTemplate);
+        service.recover();
+        service.activate(PRODUCT_ID);
+        service.reserve(PRODUCT_ID, 5);
+        service.deactivate(PRODUCT_ID);
+
+        service.giveBack(PRODUCT_ID, 5);
+        service.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), updates.capture());
+        assertThat(updates.getAllValues().get(0)).singleElement()
+                .satisfies(args -> assertThat(args).containsExactly(-5L, PRODUCT_ID));
+        assertThat(updates.getAllValues().get(1)).singleElement()
+                .satisfies(args -> assertThat(args).containsExactly(5L, PRODUCT_ID));
+    }
+
+    private HotStockService hotStock(JdbcTemplate jdbcTemplate) {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(Product.builder()
+                .id(PRODUCT_ID).name("Flash sale").price(BigDecimal.ONE).quantity(STOCK).build()));
+        return new HotStockService(new HotStockJournal(journalDir.toString(), false), productRepository,
+                jdbcTemplate, mock(PlatformTransactionManager.class), mock(CacheManager.class),
+                mock(ProductPageCache.class), true, 4, "test", List.of());
+    }
+}
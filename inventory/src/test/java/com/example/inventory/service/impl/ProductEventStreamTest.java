@@ -0,0 +1,78 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ProductEvent;
+import com.example.inventory.dto.ProductsImportedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductEventStreamTest {
+    private static final int BUFFER_SIZE = 16;
+
+    @Test
+    void idleSubscribersKeepBoundedBuffers() {
+        List<Runnable> queued = new ArrayList<>();
+        // Tasks are never run, so every subscriber behaves like a client that stopped reading
+        ProductEventStream stream = new ProductEventStream(queued::add, BUFFER_SIZE, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            stream.subscribe();
+        }
+
+        for (long productId = 1; productId <= 1_000; productId++) {
+            stream.publish(new ProductEvent(productId, ProductEvent.Type.STOCK_CHANGED, 5));
+        }
+
+        assertThat(stream.subscribers()).hasSize(10_000);
+        assertThat(stream.subscribers()).allSatisfy(subscriber ->
+                assertThat(subscriber.pendingCount()).isLessThanOrEqualTo(BUFFER_SIZE));
+        // One drain task per subscriber, however many events were published
+        assertThat(queued).hasSize(10_000);
+    }
+
+    @Test
+    void overflowIsReportedAsResync() {
+        ProductEventStream stream = new ProductEventStream(task -> {
+        }, BUFFER_SIZE, 60_000);
+        stream.subscribe();
+        for (long productId = 1; productId <= BUFFER_SIZE + 1; productId++) {
+            stream.publish(new ProductEvent(productId, ProductEvent.Type.UPDATED, null));
+        }
+
+        ProductEventStream.Batch batch = stream.subscribers().iterator().next().take();
+        assertThat(batch.resync()).isTrue();
+        assertThat(batch.events()).isEmpty();
+    }
+
+    @Test
+    void bulkImportIsAnnouncedAsResync() {
+        List<Runnable> queued = new ArrayList<>();
+        ProductEventStream stream = new ProductEventStream(queued::add, BUFFER_SIZE, 60_000);
+        stream.subscribe();
+        stream.publish(new ProductEvent(1L, ProductEvent.Type.UPDATED, null));
+
+        stream.resync(new ProductsImportedEvent(50_000));
+
+        ProductEventStream.Batch batch = stream.subscribers().iterator().next().take();
+        assertThat(batch.resync()).isTrue();
+        assertThat(batch.events()).isEmpty();
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void rapidUpdatesToOneProductAreCoalesced() {
+        ProductEventStream stream = new ProductEventStream(task -> {
+        }, BUFFER_SIZE, 60_000);
+        stream.subscribe();
+        stream.publish(new ProductEvent(1L, ProductEvent.Type.CREATED, 10));
+        for (int quantity = 9; quantity >= 0; quantity--) {
+            stream.publish(new ProductEvent(1L, ProductEvent.Type.STOCK_CHANGED, quantity));
+        }
+
+        ProductEventStream.Batch batch = stream.subscribers().iterator().next().take();
+        assertThat(batch.resync()).isFalse();
+        assertThat(batch.events()).containsExactly(new ProductEvent(1L, ProductEvent.Type.CREATED, 0));
+    }
+}
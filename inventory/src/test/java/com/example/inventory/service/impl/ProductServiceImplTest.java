@@ -0,0 +1,71 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.mapper.ProductMapper;
+import com.example.inventory.model.Product;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.service.ProductChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTest {
+    private ProductRepository productRepository;
+    private ProductServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        ProductPageCache pageCache = mock(ProductPageCache.class);
+        when(pageCache.get(any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(2).get());
+        when(productRepository.searchByName(anyString(), anyString(), anyString(), any())).thenReturn(Page.empty());
+        when(productRepository.findByNameLike(anyString(), any())).thenReturn(Page.empty());
+        when(productRepository.findByIdGreaterThanAndNameLike(anyLong(), anyString(), any()))
+                .thenReturn(new SliceImpl<Product>(List.of()));
+        service = new ProductServiceImpl(productRepository, mock(ProductMapper.class), pageCache,
+                mock(ProductChangeService.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void trigramSearchUsesLowerCasedEscapedPatterns() {
+        ReflectionTestUtils.setField(service, "trigramSearchEnabled", true);
+
+        service.getAllProducts(PageRequest.of(0, 20), "  Red_50% ");
+
+        verify(productRepository).searchByName(eq("red_50%"), eq("%red\\_50\\%%"), eq("red\\_50\\%%"), any());
+        verify(productRepository, never()).findByNameLike(anyString(), any());
+    }
+
+    @Test
+    void fallbackMatchesLowerNameLikeTheTrigramIndex() {
+        ReflectionTestUtils.setField(service, "trigramSearchEnabled", false);
+
+        service.getAllProducts(PageRequest.of(0, 20), "  Red_50% ");
+
+        verify(productRepository).findByNameLike(eq("%red\\_50\\%%"), any());
+        verify(productRepository, never()).searchByName(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void scrollFilterUsesTheSamePattern() {
+        service.getProductsAfter(null, 20, "Red");
+
+        verify(productRepository).findByIdGreaterThanAndNameLike(eq(0L), eq("%red%"), any());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.inventory.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void duplicateUploadsAreStoredAsOneBlob() throws IOException {
+        FileStorageService storage = new FileStorageService(storageDir.toString(), true, new SimpleMeterRegistry());
+        storage.init();
+        byte[] content = "same picture".getBytes(StandardCharsets.UTF_8);
+
+        String first = storage.store(new MockMultipartFile("file", "red.png", "image/png", content));
+        String second = storage.store(new MockMultipartFile("file", "red-copy.PNG", "image/png", content));
+        String other = storage.store(new MockMultipartFile("file", "blue.png", "image/png",
+                "other picture".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(first).matches("[0-9a-f]{64}\\.png");
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    @Test
+    void uniqueNamesWhenContentAddressingIsDisabled() throws IOException {
+        FileStorageService storage = new FileStorageService(storageDir.toString(), false, new SimpleMeterRegistry());
+        storage.init();
+        byte[] content = "same picture".getBytes(StandardCharsets.UTF_8);
+
+        String first = storage.store(new MockMultipartFile("file", "red.png", "image/png", content));
+        String second = storage.store(new MockMultipartFile("file", "red.png", "image/png", content));
+
+        assertThat(second).isNotEqualTo(first);
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.inventory.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageCacheTest {
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void servesAdmittedImagesFromMemoryUntilInvalidated() throws IOException {
+        ImageCache cache = new ImageCache(new SimpleMeterRegistry(), true, 1024 * 1024, 1024, 1, 100);
+        StoredFile file = write("small.png", new byte[]{1, 2, 3, 4});
+
+        CachedImage admitted = cache.admit(file);
+        Files.delete(file.path());
+
+        CachedImage cached = cache.get("small.png");
+        assertThat(cached).isSameAs(admitted);
+        assertThat(cached.lastModified()).isEqualTo(file.lastModified());
+        try (InputStream in = cached.asResource().getInputStream()) {
+            assertThat(in.readAllBytes()).containsExactly(1, 2, 3, 4);
+        }
+        // Each reader gets its own position
+        try (InputStream in = cached.asResource().getInputStream()) {
+            assertThat(in.readAllBytes()).hasSize(4);
+        }
+
+        cache.invalidate("small.png");
+        assertThat(cache.get("small.png")).isNull();
+    }
+
+    @Test
+    void skipsFilesAboveEntryLimitAndWhenDisabled() throws IOException {
+        StoredFile large = write("large.png", new byte[2048]);
+        StoredFile small = write("small.png", new byte[16]);
+
+        ImageCache enabled = new ImageCache(new SimpleMeterRegistry(), true, 1024 * 1024, 1024, 1, 100);
+        assertThat(enabled.admit(large)).isNull();
+        assertThat(enabled.get("large.png")).isNull();
+
+        ImageCache disabled = new ImageCache(new SimpleMeterRegistry(), false, 1024 * 1024, 1024, 1, 100);
+        assertThat(disabled.admit(small)).isNull();
+        assertThat(disabled.get("small.png")).isNull();
+    }
+
+    @Test
+    void onlyBuffersImagesThatMissRepeatedly() throws IOException {
+        ImageCache cache = new ImageCache(new SimpleMeterRegistry(), true, 1024 * 1024, 1024, 2, 100);
+        StoredFile once = write("once.png", new byte[16]);
+        StoredFile twice = write("twice.png", new byte[16]);
+
+        // A one-off scan reads nothing into memory
+        assertThat(cache.admit(once)).isNull();
+        assertThat(cache.admit(twice)).isNull();
+        assertThat(cache.get("once.png")).isNull();
+
+        assertThat(cache.admit(twice)).isNotNull();
+        assertThat(cache.get("twice.png")).isNotNull();
+    }
+
+    private StoredFile write(String name, byte[] content) throws IOException {
+        Path path = Files.write(storageDir.resolve(name), content);
+        return new StoredFile(name, path, content.length, Files.getLastModifiedTime(path).toMillis());
+    }
+}